@@ -0,0 +1,82 @@
+package ru.stetskevich.getorthrow;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GetOrThrow} chains against the same {@link Optional} chains.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetOrThrowBenchmark {
+
+    private String entity = "entity";
+
+    private String missing = null;
+
+    private long version = 42L;
+
+    @Benchmark
+    public String getOrThrowOf() {
+        return GetOrThrow.of(entity).orThrow();
+    }
+
+    @Benchmark
+    public String optionalOf() {
+        return Optional.ofNullable(entity).orElseThrow();
+    }
+
+    @Benchmark
+    public int getOrThrowHitChain() {
+        return GetOrThrow.of(entity).map(String::length).filter(length -> length > 0).orThrow();
+    }
+
+    @Benchmark
+    public int optionalHitChain() {
+        return Optional.ofNullable(entity).map(String::length).filter(length -> length > 0).orElseThrow();
+    }
+
+    @Benchmark
+    public int getOrThrowEmptyChain() {
+        return GetOrThrow.of(missing).map(String::length).filter(length -> length > 0).orElse(0);
+    }
+
+    @Benchmark
+    public int optionalEmptyChain() {
+        return Optional.ofNullable(missing).map(String::length).filter(length -> length > 0).orElse(0);
+    }
+
+    @Benchmark
+    public long getOrThrowBoxedScalarChain() {
+        return GetOrThrow.of(version).map(value -> value + 1).filter(value -> value > 0).orThrow();
+    }
+
+    @Benchmark
+    public long getOrThrowLongScalarChain() {
+        return GetOrThrowLong.of(version).map(value -> value + 1).filter(value -> value > 0).orThrow();
+    }
+
+    @Benchmark
+    public Object getOrThrowMiss() {
+        try {
+            return GetOrThrow.of(missing).orThrow();
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object optionalMiss() {
+        try {
+            return Optional.ofNullable(missing).orElseThrow(() -> new RuntimeException(GetOrThrow.DEFAULT_ERROR_MESSAGE));
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.stetskevich.getorthrow;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Four lookups with a simulated database round trip, resolved one after another and with {@link GetOrThrow#all}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetOrThrowFanOutBenchmark {
+
+    @Param({"200"})
+    private long roundTripMicros;
+
+    private GetOrThrow<String> lookup() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        return GetOrThrow.of("entity");
+    }
+
+    @Benchmark
+    public int sequential() {
+        return lookup().orThrow().length() + lookup().orThrow().length()
+                + lookup().orThrow().length() + lookup().orThrow().length();
+    }
+
+    @Benchmark
+    public int fanOut() {
+        GetOrThrowTuple.Of4<String, String, String, String> found = GetOrThrow.all(this::lookup, this::lookup, this::lookup, this::lookup);
+        return found.getFirst().length() + found.getSecond().length() + found.getThird().length() + found.getFourth().length();
+    }
+}
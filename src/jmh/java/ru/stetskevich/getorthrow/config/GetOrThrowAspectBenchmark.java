@@ -0,0 +1,130 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GetOrThrowAspect} and {@link GetOrThrowMethodInterceptor} advice on a proxied repository
+ * against a proxied repository returning {@link Optional}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetOrThrowAspectBenchmark {
+
+    private static final Long HIT = 1L;
+
+    private static final Long MISS = 2L;
+
+    public interface GetOrThrowRepository {
+
+        @NotFoundExceptionMessage("Not found entity with id = {}")
+        GetOrThrow<String> findOneById(Long id);
+    }
+
+    public interface OptionalRepository {
+
+        Optional<String> findOneById(Long id);
+    }
+
+    private GetOrThrowRepository getOrThrowRepository;
+
+    private GetOrThrowRepository interceptedRepository;
+
+    private GetOrThrowRepository queryRepository;
+
+    private OptionalRepository optionalRepository;
+
+    @Setup
+    public void setUp() {
+        GetOrThrowAspect aspect = new GetOrThrowAspect(GetOrThrowExceptionFactory.DEFAULT);
+
+        AspectJProxyFactory getOrThrowProxy = new AspectJProxyFactory(
+                (GetOrThrowRepository) id -> GetOrThrow.of(HIT.equals(id) ? "entity" : null));
+        getOrThrowProxy.addAspect(aspect);
+        getOrThrowRepository = getOrThrowProxy.getProxy();
+
+        ProxyFactory interceptedProxy = new ProxyFactory(
+                (GetOrThrowRepository) id -> GetOrThrow.of(HIT.equals(id) ? "entity" : null));
+        interceptedProxy.addAdvice(new GetOrThrowMethodInterceptor(new GetOrThrowAdvice(GetOrThrowExceptionFactory.DEFAULT)));
+        interceptedRepository = (GetOrThrowRepository) interceptedProxy.getProxy();
+
+        ProxyFactory queryProxy = new ProxyFactory(
+                (GetOrThrowRepository) id -> GetOrThrow.of(HIT.equals(id) ? "entity" : null));
+        queryProxy.addAdvice(new GetOrThrowMethodInterceptor(new GetOrThrowAdvice(GetOrThrowExceptionFactory.DEFAULT)));
+        queryProxy.addAdvice((MethodInterceptor) invocation -> HIT.equals(invocation.getArguments()[0]) ? "entity" : null);
+        queryRepository = (GetOrThrowRepository) queryProxy.getProxy();
+
+        ProxyFactory optionalProxy = new ProxyFactory(
+                (OptionalRepository) id -> Optional.ofNullable(HIT.equals(id) ? "entity" : null));
+        optionalRepository = (OptionalRepository) optionalProxy.getProxy();
+    }
+
+    @Benchmark
+    public String getOrThrowHit() {
+        return getOrThrowRepository.findOneById(HIT).orThrow();
+    }
+
+    @Benchmark
+    public String interceptorHit() {
+        return interceptedRepository.findOneById(HIT).orThrow();
+    }
+
+    /**
+     * The raw entity is returned inside the proxy, as by the query execution of a Spring Data repository.
+     */
+    @Benchmark
+    public String interceptorQueryHit() {
+        return queryRepository.findOneById(HIT).orThrow();
+    }
+
+    @Benchmark
+    public Object interceptorMiss() {
+        return interceptedRepository.findOneById(MISS);
+    }
+
+    @Benchmark
+    public String optionalHit() {
+        return optionalRepository.findOneById(HIT).orElseThrow();
+    }
+
+    @Benchmark
+    public Object getOrThrowMiss() {
+        return getOrThrowRepository.findOneById(MISS);
+    }
+
+    @Benchmark
+    public Object optionalMiss() {
+        return optionalRepository.findOneById(MISS);
+    }
+
+    @Benchmark
+    public Object getOrThrowMissThrown() {
+        try {
+            return getOrThrowRepository.findOneById(MISS).orThrow();
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object optionalMissThrown() {
+        try {
+            return optionalRepository.findOneById(MISS)
+                    .orElseThrow(() -> new RuntimeException("Not found entity with id = " + MISS));
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.GenericConverter;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.util.NullableWrapper;
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converters of query results into {@link GetOrThrow}, called directly and through a
+ * {@link DefaultConversionService} as Spring Data does, against {@link Optional} and against
+ * the direct wrapping of {@link GetOrThrowMethodInterceptor}. The {@code Object -> GetOrThrow} converter
+ * the starter used to register is kept here as the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetOrThrowConverterBenchmark {
+
+    private static final TypeDescriptor OBJECT = TypeDescriptor.valueOf(Object.class);
+
+    private static final TypeDescriptor GET_OR_THROW = TypeDescriptor.valueOf(GetOrThrow.class);
+
+    private final Object entity = "entity";
+
+    private final NullableWrapper wrapper = new NullableWrapper(entity);
+
+    private GenericConverter genericConverter;
+
+    private GetOrThrowConfig.GetOrThrowConverter converter;
+
+    private DefaultConversionService conversionService;
+
+    private DefaultConversionService nullableWrapperConversionService;
+
+    private GetOrThrowMethodMetadata metadata;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        genericConverter = new LegacyGenericConverter(GetOrThrowExceptionFactory.DEFAULT);
+        converter = new GetOrThrowConfig.GetOrThrowConverter(GetOrThrowExceptionFactory.DEFAULT);
+        conversionService = new DefaultConversionService();
+        conversionService.addConverter(genericConverter);
+        nullableWrapperConversionService = new DefaultConversionService();
+        nullableWrapperConversionService.addConverter(converter);
+        metadata = new GetOrThrowAdvice(GetOrThrowExceptionFactory.DEFAULT).getMetadata(Repository.class.getMethod("findOneById", Long.class));
+    }
+
+    @Benchmark
+    public Object directWrap() {
+        return metadata.wrap(entity, null);
+    }
+
+    @Benchmark
+    public Object conversionServiceNullableWrapper() {
+        return nullableWrapperConversionService.convert(new NullableWrapper(entity), GET_OR_THROW);
+    }
+
+    @Benchmark
+    public Object genericConverter() {
+        return genericConverter.convert(entity, OBJECT, GET_OR_THROW);
+    }
+
+    @Benchmark
+    public Object nullableWrapperConverter() {
+        return converter.convert(wrapper);
+    }
+
+    @Benchmark
+    public Object conversionServiceGetOrThrow() {
+        return conversionService.convert(entity, GetOrThrow.class);
+    }
+
+    @Benchmark
+    public Object conversionServiceOptional() {
+        return conversionService.convert(entity, Optional.class);
+    }
+
+    @Benchmark
+    public Object optionalBaseline() {
+        return Optional.ofNullable(entity);
+    }
+
+    interface Repository {
+
+        GetOrThrow<Object> findOneById(Long id);
+    }
+
+    /**
+     * Converts any value to {@link GetOrThrow}, as the removed {@code GetOrThrowGenericConverter} did.
+     */
+    private static final class LegacyGenericConverter implements GenericConverter {
+
+        private final GetOrThrowExceptionFactory getOrThrowExceptionFactory;
+
+        private final GetOrThrow<?> empty;
+
+        private LegacyGenericConverter(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+            this.getOrThrowExceptionFactory = getOrThrowExceptionFactory;
+            this.empty = GetOrThrow.empty(getOrThrowExceptionFactory);
+        }
+
+        @Override
+        public Set<ConvertiblePair> getConvertibleTypes() {
+            return Collections.singleton(new ConvertiblePair(Object.class, GetOrThrow.class));
+        }
+
+        @Override
+        public Object convert(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+            return source == null ? empty : GetOrThrow.of(source, getOrThrowExceptionFactory);
+        }
+    }
+}
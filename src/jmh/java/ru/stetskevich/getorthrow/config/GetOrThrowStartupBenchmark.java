@@ -0,0 +1,92 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.index.ExistenceIndex;
+import ru.stetskevich.getorthrow.metrics.GetOrThrowMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Context refresh with many plain beans and the advice of each {@code get-or-throw.advice-mode}:
+ * {@code none} and {@code aspectj} register nothing at startup, {@code repository} adds a bean post processor
+ * checking for repository factories, {@code proxy} matches the aspect pointcut against every bean method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 4, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(1)
+public class GetOrThrowStartupBenchmark {
+
+    @Param({"none", "repository", "proxy"})
+    public String adviceMode;
+
+    @Param({"2000"})
+    public int beans;
+
+    @Benchmark
+    public Object refresh() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            if ("repository".equals(adviceMode)) {
+                context.registerBean(GetOrThrowRepositoryPostProcessor.class, () -> new GetOrThrowRepositoryPostProcessor(
+                        context.getBeanProvider(GetOrThrowExceptionFactory.class), context.getBeanProvider(GetOrThrowMetrics.class),
+                        context.getBeanProvider(ExistenceIndex.class)));
+            } else if ("proxy".equals(adviceMode)) {
+                AopConfigUtils.registerAspectJAnnotationAutoProxyCreatorIfNecessary(context);
+                context.registerBean(GetOrThrowAspect.class, () -> new GetOrThrowAspect(GetOrThrowExceptionFactory.DEFAULT));
+            }
+            for (int i = 0; i < beans; i++) {
+                context.registerBean("service" + i, PlainService.class);
+            }
+            context.refresh();
+            return context.getBean("service0");
+        }
+    }
+
+    public static class PlainService {
+
+        public String first(Long id) {
+            return "first" + id;
+        }
+
+        public String second(Long id) {
+            return "second" + id;
+        }
+
+        public String third(Long id) {
+            return "third" + id;
+        }
+
+        public String fourth(Long id) {
+            return "fourth" + id;
+        }
+
+        public String fifth(Long id) {
+            return "fifth" + id;
+        }
+
+        public Long sixth(String name) {
+            return (long) name.length();
+        }
+
+        public Long seventh(String name) {
+            return (long) name.hashCode();
+        }
+
+        public boolean eighth(String name) {
+            return name.isEmpty();
+        }
+
+        public int ninth(String name) {
+            return name.indexOf('.');
+        }
+
+        public void tenth(String name) {
+            name.trim();
+        }
+    }
+}
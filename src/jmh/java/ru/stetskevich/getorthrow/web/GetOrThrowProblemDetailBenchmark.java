@@ -0,0 +1,57 @@
+package ru.stetskevich.getorthrow.web;
+
+import org.openjdk.jmh.annotations.*;
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.factory.StacklessGetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Not found response bodies of {@link GetOrThrowProblemDetailHandler} against rendering the message
+ * and building the JSON string per response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetOrThrowProblemDetailBenchmark {
+
+    private final GetOrThrowProblemDetailHandler handler = new GetOrThrowProblemDetailHandler();
+
+    private final StacklessGetOrThrowExceptionFactory factory = new StacklessGetOrThrowExceptionFactory();
+
+    private NotFoundMessageTemplate staticTemplate;
+
+    private NotFoundMessageTemplate idTemplate;
+
+    private Object[] args = {42L};
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        staticTemplate = NotFoundMessageTemplate.compile("Entity not found", Object.class.getMethod("toString"));
+        idTemplate = NotFoundMessageTemplate.compile("Not found entity with id = {}", Object.class.getMethod("hashCode"));
+    }
+
+    @Benchmark
+    public byte[] preEncodedStatic() {
+        return handler.handleNotFound(factory.createException(new NotFoundContext(staticTemplate, null))).getBody();
+    }
+
+    @Benchmark
+    public byte[] preEncodedId() {
+        return handler.handleNotFound(factory.createException(new NotFoundContext(idTemplate, args))).getBody();
+    }
+
+    @Benchmark
+    public byte[] renderedId() {
+        GetOrThrowNotFoundException exception = factory.createException(new NotFoundContext(idTemplate, args));
+        String body = "{\"type\":\"about:blank\",\"title\":\"Not Found\",\"status\":404,\"detail\":\""
+                + exception.getMessage().replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.stetskevich.getorthrow.harness;
+
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Options of {@link LoadHarness}, read from {@code harness.*} properties.
+ */
+final class HarnessOptions {
+
+    /**
+     * Number of stored entities; ids above it are misses.
+     */
+    final int entities;
+
+    /**
+     * Measured lookups per scenario, split between the threads.
+     */
+    final int requests;
+
+    /**
+     * Lookups per scenario before the measurement.
+     */
+    final int warmup;
+
+    /**
+     * Measured rounds per scenario; the variants of a store are measured in alternating order.
+     */
+    final int rounds;
+
+    /**
+     * Share of lookups of existing ids, from 0 to 1.
+     */
+    final double hitRatio;
+
+    final int[] concurrency;
+
+    /**
+     * {@code jpa} and/or {@code keyvalue}.
+     */
+    final List<String> stores;
+
+    /**
+     * File the report is written to, in addition to the log; empty to skip.
+     */
+    final String report;
+
+    private HarnessOptions(int entities, int requests, int warmup, int rounds, double hitRatio, int[] concurrency,
+                           List<String> stores, String report) {
+        if (entities <= 0 || requests <= 0 || warmup < 0 || rounds <= 0 || hitRatio < 0 || hitRatio > 1 || concurrency.length == 0) {
+            throw new IllegalArgumentException("Invalid harness options");
+        }
+        this.entities = entities;
+        this.requests = requests;
+        this.warmup = warmup;
+        this.rounds = rounds;
+        this.hitRatio = hitRatio;
+        this.concurrency = concurrency;
+        this.stores = stores;
+        this.report = report;
+    }
+
+    static HarnessOptions from(Environment environment) {
+        return new HarnessOptions(
+                environment.getProperty("harness.entities", Integer.class, 1_000),
+                environment.getProperty("harness.requests", Integer.class, 100_000),
+                environment.getProperty("harness.warmup", Integer.class, 50_000),
+                environment.getProperty("harness.rounds", Integer.class, 5),
+                environment.getProperty("harness.hit-ratio", Double.class, 0.9),
+                Arrays.stream(environment.getProperty("harness.concurrency", "1,8").split(","))
+                        .map(String::trim).mapToInt(Integer::parseInt).toArray(),
+                Arrays.asList(environment.getProperty("harness.stores", "jpa,keyvalue").split(",")),
+                environment.getProperty("harness.report", ""));
+    }
+
+    @Override
+    public String toString() {
+        return "entities=" + entities + ", requests=" + requests + ", warmup=" + warmup + ", rounds=" + rounds
+                + ", hit-ratio=" + hitRatio
+                + ", concurrency=" + Arrays.toString(concurrency) + ", stores=" + stores;
+    }
+}
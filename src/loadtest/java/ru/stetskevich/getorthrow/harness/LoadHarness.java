@@ -0,0 +1,313 @@
+package ru.stetskevich.getorthrow.harness;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.stetskevich.getorthrow.harness.jpa.JpaGetOrThrowRepository;
+import ru.stetskevich.getorthrow.harness.jpa.JpaItem;
+import ru.stetskevich.getorthrow.harness.jpa.JpaOptionalRepository;
+import ru.stetskevich.getorthrow.harness.keyvalue.KeyValueGetOrThrowRepository;
+import ru.stetskevich.getorthrow.harness.keyvalue.KeyValueItem;
+import ru.stetskevich.getorthrow.harness.keyvalue.KeyValueOptionalRepository;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Drives the {@code GetOrThrow} and {@code Optional} repositories of every store with the same id sequence
+ * and reports latency percentiles, throughput and allocation of each scenario. A miss is a thrown exception
+ * in both cases: {@code orThrow()} against {@code orElseThrow} with the same message.
+ * <p>
+ * Both variants are warmed up before any of them is measured, then measured in several rounds in alternating
+ * order, so neither gets the JIT state or the heap left by the other; the spread of the rounds is reported.
+ */
+final class LoadHarness {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadHarness.class);
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final HarnessOptions options;
+
+    private final JpaGetOrThrowRepository jpaGetOrThrowRepository;
+
+    private final JpaOptionalRepository jpaOptionalRepository;
+
+    private final KeyValueGetOrThrowRepository keyValueGetOrThrowRepository;
+
+    private final KeyValueOptionalRepository keyValueOptionalRepository;
+
+    LoadHarness(HarnessOptions options, JpaGetOrThrowRepository jpaGetOrThrowRepository, JpaOptionalRepository jpaOptionalRepository,
+                KeyValueGetOrThrowRepository keyValueGetOrThrowRepository, KeyValueOptionalRepository keyValueOptionalRepository) {
+        this.options = options;
+        this.jpaGetOrThrowRepository = jpaGetOrThrowRepository;
+        this.jpaOptionalRepository = jpaOptionalRepository;
+        this.keyValueGetOrThrowRepository = keyValueGetOrThrowRepository;
+        this.keyValueOptionalRepository = keyValueOptionalRepository;
+    }
+
+    void run() throws Exception {
+        log.info("Load harness: {}", options);
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String store : options.stores) {
+            Lookup getOrThrow;
+            Lookup optional;
+            if ("jpa".equals(store)) {
+                jpaGetOrThrowRepository.saveAll(LongStream.rangeClosed(1, options.entities)
+                        .mapToObj(id -> new JpaItem(id, "item-" + id)).collect(Collectors.toList()));
+                getOrThrow = id -> jpaGetOrThrowRepository.findOneById(id).orThrow();
+                optional = id -> jpaOptionalRepository.findOneById(id)
+                        .orElseThrow(() -> new RuntimeException("Not found item with id = " + id));
+            } else if ("keyvalue".equals(store)) {
+                keyValueGetOrThrowRepository.saveAll(LongStream.rangeClosed(1, options.entities)
+                        .mapToObj(id -> new KeyValueItem(id, "item-" + id)).collect(Collectors.toList()));
+                getOrThrow = id -> keyValueGetOrThrowRepository.findOneById(id).orThrow();
+                optional = id -> keyValueOptionalRepository.findOneById(id)
+                        .orElseThrow(() -> new RuntimeException("Not found item with id = " + id));
+            } else {
+                throw new IllegalArgumentException("Unknown store " + store + ", expected jpa or keyvalue");
+            }
+            for (int threads : options.concurrency) {
+                Scenario optionalScenario = new Scenario(store, "Optional", optional, threads);
+                Scenario getOrThrowScenario = new Scenario(store, "GetOrThrow", getOrThrow, threads);
+                measure(optionalScenario, getOrThrowScenario);
+                scenarios.add(optionalScenario);
+                scenarios.add(getOrThrowScenario);
+            }
+        }
+        report(scenarios);
+    }
+
+    /**
+     * Round {@code r} starts with scenario {@code r % n}, so every scenario is measured first as often as the others.
+     */
+    private void measure(Scenario... scenarios) throws Exception {
+        if (options.warmup > 0) {
+            for (Scenario scenario : scenarios) {
+                execute(scenario.lookup, scenario.threads, options.warmup);
+            }
+        }
+        for (int round = 0; round < options.rounds; round++) {
+            for (int i = 0; i < scenarios.length; i++) {
+                Scenario scenario = scenarios[(i + round) % scenarios.length];
+                Run run = execute(scenario.lookup, scenario.threads, options.requests);
+                scenario.runs.add(run);
+                log.info("{} {} x{} round {}: {} ops/s", scenario.store, scenario.result, scenario.threads, round + 1,
+                        Math.round(run.throughput()));
+            }
+        }
+    }
+
+    private Run execute(Lookup lookup, int threads, int requests) throws Exception {
+        int requestsPerThread = Math.max(1, requests / threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch ready = new CountDownLatch(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Worker>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                Worker worker = new Worker(lookup, ids(requestsPerThread, i));
+                workers.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    worker.run();
+                    return worker;
+                }));
+            }
+            ready.await();
+            long startedAt = System.nanoTime();
+            start.countDown();
+            List<Worker> finished = new ArrayList<>(threads);
+            for (Future<Worker> worker : workers) {
+                finished.add(worker.get());
+            }
+            return new Run(finished, System.nanoTime() - startedAt);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Boxed in advance, so boxing of ids above the {@code Long} cache is not counted as repository allocation.
+     */
+    private Long[] ids(int count, int worker) {
+        SplittableRandom random = new SplittableRandom(31L * worker + 17);
+        Long[] ids = new Long[count];
+        for (int i = 0; i < count; i++) {
+            long id = 1 + random.nextInt(options.entities);
+            ids[i] = random.nextDouble() < options.hitRatio ? id : id + options.entities;
+        }
+        return ids;
+    }
+
+    private void report(List<Scenario> scenarios) throws IOException {
+        StringBuilder report = new StringBuilder()
+                .append("GetOrThrow load harness, ").append(options).append(", java ").append(System.getProperty("java.version"))
+                .append(System.lineSeparator())
+                .append(String.format("%-9s %-10s %7s %7s %12s %8s %9s %9s %11s %10s %11s%n", "store", "result", "threads",
+                        "miss%", "ops/s", "+-%", "p50 us", "p99 us", "alloc MB/s", "alloc B/op", "vs Optional"));
+        Scenario baseline = null;
+        for (Scenario scenario : scenarios) {
+            if ("Optional".equals(scenario.result)) {
+                baseline = scenario;
+            }
+            String relative = baseline == null || scenario == baseline
+                    ? ""
+                    : String.format("%+.1f%%", (scenario.throughput() / baseline.throughput() - 1) * 100);
+            report.append(String.format("%-9s %-10s %7d %7.1f %12.0f %8.1f %9.1f %9.1f %11.1f %10.0f %11s%n", scenario.store,
+                    scenario.result, scenario.threads, scenario.missRatio() * 100, scenario.throughput(),
+                    scenario.throughputDeviation() * 100, scenario.percentileMicros(0.5), scenario.percentileMicros(0.99),
+                    scenario.allocationRateMegabytes(), scenario.allocatedBytesPerOperation(), relative));
+        }
+        report.append("ops/s is the mean of ").append(options.rounds).append(" rounds, +-% their standard deviation;")
+                .append(" differences within it are noise").append(System.lineSeparator());
+        log.info("{}{}", System.lineSeparator(), report);
+        if (!options.report.isEmpty()) {
+            Files.write(Paths.get(options.report), report.toString().getBytes(StandardCharsets.UTF_8));
+            log.info("Report written to {}", options.report);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+
+        Object find(Long id);
+    }
+
+    private static final class Worker {
+
+        private final Lookup lookup;
+
+        private final Long[] ids;
+
+        private final long[] latencies;
+
+        private int misses;
+
+        private long allocatedBytes;
+
+        private Worker(Lookup lookup, Long[] ids) {
+            this.lookup = lookup;
+            this.ids = ids;
+            this.latencies = new long[ids.length];
+        }
+
+        void run() {
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < ids.length; i++) {
+                long startedAt = System.nanoTime();
+                try {
+                    lookup.find(ids[i]);
+                } catch (RuntimeException e) {
+                    misses++;
+                }
+                latencies[i] = System.nanoTime() - startedAt;
+            }
+            allocatedBytes = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+    }
+
+    private static final class Run {
+
+        private final long[] latencies;
+
+        private final long misses;
+
+        private final long allocatedBytes;
+
+        private final long elapsedNanos;
+
+        private Run(List<Worker> workers, long elapsedNanos) {
+            this.latencies = workers.stream().flatMapToLong(worker -> Arrays.stream(worker.latencies)).toArray();
+            this.misses = workers.stream().mapToLong(worker -> worker.misses).sum();
+            this.allocatedBytes = workers.stream().mapToLong(worker -> worker.allocatedBytes).sum();
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        double throughput() {
+            return latencies.length * 1e9 / elapsedNanos;
+        }
+    }
+
+    /**
+     * One variant of a store at one concurrency level, with the runs of all rounds.
+     */
+    private static final class Scenario {
+
+        private final String store;
+
+        private final String result;
+
+        private final Lookup lookup;
+
+        private final int threads;
+
+        private final List<Run> runs = new ArrayList<>();
+
+        private long[] sortedLatencies;
+
+        private Scenario(String store, String result, Lookup lookup, int threads) {
+            this.store = store;
+            this.result = result;
+            this.lookup = lookup;
+            this.threads = threads;
+        }
+
+        double throughput() {
+            return runs.stream().mapToDouble(Run::throughput).average().orElse(0);
+        }
+
+        /**
+         * @return standard deviation of the throughput of the rounds relative to the mean
+         */
+        double throughputDeviation() {
+            double mean = throughput();
+            double variance = runs.stream().mapToDouble(run -> Math.pow(run.throughput() - mean, 2)).sum() / Math.max(1, runs.size() - 1);
+            return Math.sqrt(variance) / mean;
+        }
+
+        /**
+         * @return percentile of the latencies of all rounds
+         */
+        double percentileMicros(double percentile) {
+            if (sortedLatencies == null) {
+                sortedLatencies = runs.stream().flatMapToLong(run -> Arrays.stream(run.latencies)).sorted().toArray();
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e3;
+        }
+
+        double missRatio() {
+            return (double) runs.stream().mapToLong(run -> run.misses).sum() / operations();
+        }
+
+        double allocationRateMegabytes() {
+            return allocatedBytes() * 1e3 / runs.stream().mapToLong(run -> run.elapsedNanos).sum();
+        }
+
+        double allocatedBytesPerOperation() {
+            return (double) allocatedBytes() / operations();
+        }
+
+        private long operations() {
+            return runs.stream().mapToLong(run -> run.latencies.length).sum();
+        }
+
+        private long allocatedBytes() {
+            return runs.stream().mapToLong(run -> run.allocatedBytes).sum();
+        }
+    }
+}
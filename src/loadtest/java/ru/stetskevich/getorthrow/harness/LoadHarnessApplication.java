@@ -0,0 +1,54 @@
+package ru.stetskevich.getorthrow.harness;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.keyvalue.core.KeyValueTemplate;
+import org.springframework.data.map.MapKeyValueAdapter;
+import org.springframework.data.map.repository.config.EnableMapRepositories;
+import ru.stetskevich.getorthrow.harness.jpa.JpaGetOrThrowRepository;
+import ru.stetskevich.getorthrow.harness.jpa.JpaOptionalRepository;
+import ru.stetskevich.getorthrow.harness.keyvalue.KeyValueGetOrThrowRepository;
+import ru.stetskevich.getorthrow.harness.keyvalue.KeyValueIdLookupAdapter;
+import ru.stetskevich.getorthrow.harness.keyvalue.KeyValueOptionalRepository;
+
+/**
+ * Spring Boot application with the starter, Jpa repositories on embedded H2 and in-memory map repositories
+ * standing in for MongoDB. Every store has a repository returning {@code GetOrThrow} and the same repository
+ * returning {@code Optional}; {@link LoadHarness} drives both and prints the comparison.
+ * <p>
+ * Run with {@code ./gradlew loadTest}. Options are passed as {@code -PloadArgs='--harness.concurrency=1,16'};
+ * starter properties, e.g. {@code --get-or-throw.advice-mode=proxy}, are passed the same way.
+ */
+@SpringBootApplication
+@EnableJpaRepositories(basePackageClasses = JpaGetOrThrowRepository.class)
+@EnableMapRepositories(basePackageClasses = KeyValueGetOrThrowRepository.class)
+public class LoadHarnessApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(LoadHarnessApplication.class)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN",
+                        "logging.level.ru.stetskevich.getorthrow.harness=INFO")
+                .run(args)
+                .close();
+    }
+
+    @Bean
+    public KeyValueTemplate mapKeyValueTemplate(Environment environment) {
+        return new KeyValueTemplate(environment.getProperty("harness.keyvalue-scan", Boolean.class, false)
+                ? new MapKeyValueAdapter() : new KeyValueIdLookupAdapter());
+    }
+
+    @Bean
+    public ApplicationRunner loadHarness(Environment environment,
+                                         JpaGetOrThrowRepository jpaGetOrThrowRepository,
+                                         JpaOptionalRepository jpaOptionalRepository,
+                                         KeyValueGetOrThrowRepository keyValueGetOrThrowRepository,
+                                         KeyValueOptionalRepository keyValueOptionalRepository) {
+        return args -> new LoadHarness(HarnessOptions.from(environment), jpaGetOrThrowRepository, jpaOptionalRepository,
+                keyValueGetOrThrowRepository, keyValueOptionalRepository).run();
+    }
+}
@@ -0,0 +1,11 @@
+package ru.stetskevich.getorthrow.harness.jpa;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage;
+
+public interface JpaGetOrThrowRepository extends JpaRepository<JpaItem, Long> {
+
+    @NotFoundExceptionMessage("Not found item with id = {}")
+    GetOrThrow<JpaItem> findOneById(Long id);
+}
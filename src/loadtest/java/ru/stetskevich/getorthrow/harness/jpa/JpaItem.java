@@ -0,0 +1,29 @@
+package ru.stetskevich.getorthrow.harness.jpa;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Entity
+public class JpaItem {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    protected JpaItem() {
+    }
+
+    public JpaItem(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
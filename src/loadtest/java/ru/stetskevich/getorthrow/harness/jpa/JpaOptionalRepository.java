@@ -0,0 +1,10 @@
+package ru.stetskevich.getorthrow.harness.jpa;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface JpaOptionalRepository extends JpaRepository<JpaItem, Long> {
+
+    Optional<JpaItem> findOneById(Long id);
+}
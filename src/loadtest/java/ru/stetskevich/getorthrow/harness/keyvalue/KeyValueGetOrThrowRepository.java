@@ -0,0 +1,11 @@
+package ru.stetskevich.getorthrow.harness.keyvalue;
+
+import org.springframework.data.keyvalue.repository.KeyValueRepository;
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage;
+
+public interface KeyValueGetOrThrowRepository extends KeyValueRepository<KeyValueItem, Long> {
+
+    @NotFoundExceptionMessage("Not found item with id = {}")
+    GetOrThrow<KeyValueItem> findOneById(Long id);
+}
@@ -0,0 +1,48 @@
+package ru.stetskevich.getorthrow.harness.keyvalue;
+
+import org.springframework.data.keyvalue.core.SpelCriteria;
+import org.springframework.data.keyvalue.core.query.KeyValueQuery;
+import org.springframework.data.map.MapKeyValueAdapter;
+
+import java.util.Collections;
+
+/**
+ * Map adapter that answers derived {@code findOneById} queries by key, as MongoDB answers them from the
+ * {@code _id} index; every other query goes to the stock {@code SpelQueryEngine}.
+ * <p>
+ * The stock engine evaluates the query expression against each stored entity. With the default 1000 entities
+ * that is about 40 ops/s and 38 MB allocated per lookup for both variants, so the scan hides the cost of the
+ * result wrapping. Run {@code ./gradlew loadTest -PloadArgs='--harness.stores=keyvalue --harness.keyvalue-scan=true'}
+ * to reproduce it.
+ */
+public class KeyValueIdLookupAdapter extends MapKeyValueAdapter {
+
+    private static final String ID_EQUALS = "#it?.id?.equals([0])";
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Iterable<T> find(KeyValueQuery<?> query, String keyspace, Class<T> type) {
+        if (!isIdLookup(query)) {
+            return super.find(query, keyspace, type);
+        }
+        Object item = get(id(query), keyspace);
+        return item == null ? Collections.emptyList() : Collections.singletonList((T) item);
+    }
+
+    @Override
+    public long count(KeyValueQuery<?> query, String keyspace) {
+        if (!isIdLookup(query)) {
+            return super.count(query, keyspace);
+        }
+        return contains(id(query), keyspace) ? 1 : 0;
+    }
+
+    private static boolean isIdLookup(KeyValueQuery<?> query) {
+        return query.getCriteria() instanceof SpelCriteria && query.getOffset() <= 0
+                && ID_EQUALS.equals(((SpelCriteria) query.getCriteria()).getExpression().getExpressionString());
+    }
+
+    private static Object id(KeyValueQuery<?> query) {
+        return ((Object[]) ((SpelCriteria) query.getCriteria()).getContext().getRootObject().getValue())[0];
+    }
+}
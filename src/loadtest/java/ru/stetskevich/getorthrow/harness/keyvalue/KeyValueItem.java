@@ -0,0 +1,29 @@
+package ru.stetskevich.getorthrow.harness.keyvalue;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.keyvalue.annotation.KeySpace;
+
+/**
+ * Document of the in-memory store that stands in for MongoDB.
+ */
+@KeySpace("items")
+public class KeyValueItem {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    public KeyValueItem(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
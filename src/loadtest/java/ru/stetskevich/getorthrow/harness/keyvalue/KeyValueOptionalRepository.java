@@ -0,0 +1,10 @@
+package ru.stetskevich.getorthrow.harness.keyvalue;
+
+import org.springframework.data.keyvalue.repository.KeyValueRepository;
+
+import java.util.Optional;
+
+public interface KeyValueOptionalRepository extends KeyValueRepository<KeyValueItem, Long> {
+
+    Optional<KeyValueItem> findOneById(Long id);
+}
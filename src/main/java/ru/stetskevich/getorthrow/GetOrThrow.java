@@ -1,8 +1,14 @@
 package ru.stetskevich.getorthrow;
 
 import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -12,9 +18,19 @@ import java.util.stream.Stream;
 public class GetOrThrow<T> {
     public static final String DEFAULT_ERROR_MESSAGE = "Entity not found";
 
-    private final Optional<T> value;
+    private static final GetOrThrow<?> EMPTY = new GetOrThrow<>(null);
 
-    private final String errorMessage;
+    /**
+     * Empty instance of the last factory passed to {@link #empty(GetOrThrowExceptionFactory)}. An application
+     * usually has one factory, so its empty instance is created once, while a factory per call does not grow a cache.
+     */
+    private static volatile GetOrThrow<?> factoryEmpty = EMPTY;
+
+    private final T value;
+
+    private final NotFoundMessageTemplate errorMessageTemplate;
+
+    private final Object[] errorMessageArgs;
 
     private final GetOrThrowExceptionFactory getOrThrowExceptionFactory;
 
@@ -25,26 +41,49 @@ public class GetOrThrow<T> {
      *              ensure the value is non-{@code null} unless creating the singleton
      *              instance returned by {@code empty()}.
      */
-    private GetOrThrow(Optional<T> value) {
-        this.value = value;
-        this.errorMessage = DEFAULT_ERROR_MESSAGE;
-        this.getOrThrowExceptionFactory = GetOrThrowExceptionFactory.DEFAULT;
+    private GetOrThrow(T value) {
+        this(value, NotFoundMessageTemplate.DEFAULT, null, GetOrThrowExceptionFactory.DEFAULT);
     }
 
-    private GetOrThrow(Optional<T> value, String errorMessage) {
-        this.value = value;
-        this.errorMessage = errorMessage;
-        this.getOrThrowExceptionFactory = GetOrThrowExceptionFactory.DEFAULT;
+    public GetOrThrow(Optional<T> value, String errorMessage, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        this(value.orElse(null), NotFoundMessageTemplate.literal(errorMessage), null, getOrThrowExceptionFactory);
     }
 
-    public GetOrThrow(Optional<T> value, String errorMessage, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+    private GetOrThrow(T value, NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs,
+                       GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
         this.value = value;
-        this.errorMessage = errorMessage;
+        this.errorMessageTemplate = errorMessageTemplate;
+        this.errorMessageArgs = errorMessageArgs;
         this.getOrThrowExceptionFactory = getOrThrowExceptionFactory;
     }
 
+    /**
+     * @return shared empty instance with the default message and exception factory
+     */
+    @SuppressWarnings("unchecked")
     public static <T> GetOrThrow<T> empty() {
-        return new GetOrThrow<>(Optional.empty());
+        return (GetOrThrow<T>) EMPTY;
+    }
+
+    /**
+     * Returns an empty instance bound to the given exception factory. The instance of the last used factory
+     * is shared: repeated calls with the same factory do not allocate, alternating factories do.
+     *
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @param <T>                        the type of the value
+     * @return empty {@code GetOrThrow}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> GetOrThrow<T> empty(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        if (getOrThrowExceptionFactory == GetOrThrowExceptionFactory.DEFAULT) {
+            return empty();
+        }
+        GetOrThrow<?> empty = factoryEmpty;
+        if (empty.getOrThrowExceptionFactory != getOrThrowExceptionFactory) {
+            empty = new GetOrThrow<>(null, NotFoundMessageTemplate.DEFAULT, null, getOrThrowExceptionFactory);
+            factoryEmpty = empty;
+        }
+        return (GetOrThrow<T>) empty;
     }
 
     /**
@@ -57,10 +96,61 @@ public class GetOrThrow<T> {
      * @throws NullPointerException if value is {@code null}
      */
     public static <T> GetOrThrow<T> of(T value) {
-        return new GetOrThrow<>(Optional.ofNullable(value));
+        return value == null ? empty() : new GetOrThrow<>(value);
     }
     public static <T> GetOrThrow<T> of(T value, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
-        return new GetOrThrow<>(Optional.ofNullable(value), DEFAULT_ERROR_MESSAGE, getOrThrowExceptionFactory);
+        if (value == null) {
+            return empty(getOrThrowExceptionFactory);
+        }
+        return new GetOrThrow<>(value, NotFoundMessageTemplate.DEFAULT, null, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * Creates the result with its error message in one step, without an intermediate instance.
+     *
+     * @param value                      the value, may be {@code null}
+     * @param errorMessageTemplate       compiled template
+     * @param args                       call arguments, kept for the exception factory whatever the template renders
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @param <T>                        the type of the value
+     * @return {@code GetOrThrow} with the value and the error message
+     */
+    public static <T> GetOrThrow<T> of(T value, NotFoundMessageTemplate errorMessageTemplate, Object[] args,
+                                       GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        if (value == null && errorMessageTemplate == NotFoundMessageTemplate.DEFAULT && args == null) {
+            return empty(getOrThrowExceptionFactory);
+        }
+        return new GetOrThrow<>(value, errorMessageTemplate, args, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * Runs the lookups concurrently with {@link GetOrThrowFanOut#defaultFanOut()}.
+     *
+     * @return values of the lookups
+     * @throws RuntimeException of the first lookup completed with an empty result, the others are cancelled
+     */
+    public static <A, B> GetOrThrowTuple.Of2<A, B> all(Supplier<GetOrThrow<A>> first, Supplier<GetOrThrow<B>> second) {
+        return GetOrThrowFanOut.defaultFanOut().all(first, second);
+    }
+
+    public static <A, B, C> GetOrThrowTuple.Of3<A, B, C> all(Supplier<GetOrThrow<A>> first, Supplier<GetOrThrow<B>> second,
+                                                            Supplier<GetOrThrow<C>> third) {
+        return GetOrThrowFanOut.defaultFanOut().all(first, second, third);
+    }
+
+    public static <A, B, C, D> GetOrThrowTuple.Of4<A, B, C, D> all(Supplier<GetOrThrow<A>> first, Supplier<GetOrThrow<B>> second,
+                                                                  Supplier<GetOrThrow<C>> third, Supplier<GetOrThrow<D>> fourth) {
+        return GetOrThrowFanOut.defaultFanOut().all(first, second, third, fourth);
+    }
+
+    public static <A, B, C, D, E> GetOrThrowTuple.Of5<A, B, C, D, E> all(Supplier<GetOrThrow<A>> first, Supplier<GetOrThrow<B>> second,
+                                                                        Supplier<GetOrThrow<C>> third, Supplier<GetOrThrow<D>> fourth,
+                                                                        Supplier<GetOrThrow<E>> fifth) {
+        return GetOrThrowFanOut.defaultFanOut().all(first, second, third, fourth, fifth);
+    }
+
+    public static <T> List<T> all(List<? extends Supplier<? extends GetOrThrow<? extends T>>> lookups) {
+        return GetOrThrowFanOut.defaultFanOut().all(lookups);
     }
 
     /**
@@ -71,11 +161,42 @@ public class GetOrThrow<T> {
      * @apiNote
      */
     public T orThrow() {
-        return value.orElseThrow(() -> getOrThrowExceptionFactory.createException(errorMessage));
+        if (value != null) {
+            return value;
+        }
+        throw getOrThrowExceptionFactory.createException(new NotFoundContext(errorMessageTemplate, errorMessageArgs));
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #orThrow()} for {@code CompletableFuture<GetOrThrow<T>>} repository methods.
+     * The returned future is completed on the thread completing {@code result}, without a switch to another executor;
+     * an empty result completes it with the exception of the {@link GetOrThrowExceptionFactory} as is.
+     *
+     * @param result pending result of a lookup
+     * @param <T>    the type of the value
+     * @return future of the value
+     */
+    public static <T> CompletableFuture<T> orThrowAsync(CompletionStage<GetOrThrow<T>> result) {
+        CompletableFuture<T> value = new CompletableFuture<>();
+        result.whenComplete((getOrThrow, failure) -> {
+            if (failure != null) {
+                value.completeExceptionally(failure);
+            } else if (getOrThrow != null && getOrThrow.value != null) {
+                value.complete(getOrThrow.value);
+            } else {
+                GetOrThrow<T> empty = getOrThrow == null ? empty() : getOrThrow;
+                value.completeExceptionally(empty.getOrThrowExceptionFactory.createException(
+                        new NotFoundContext(empty.errorMessageTemplate, empty.errorMessageArgs)));
+            }
+        });
+        return value;
     }
 
     public T orThrow(String errorMessage) {
-        return changeMessage(errorMessage).orThrow();
+        if (value != null) {
+            return value;
+        }
+        throw getOrThrowExceptionFactory.createException(errorMessage);
     }
 
     /**
@@ -84,7 +205,7 @@ public class GetOrThrow<T> {
      * @return {@code true} if a value is present, otherwise {@code false}
      */
     public boolean isPresent() {
-        return value.isPresent();
+        return value != null;
     }
 
     /**
@@ -95,12 +216,60 @@ public class GetOrThrow<T> {
      * @since 11
      */
     public boolean isEmpty() {
-        return value.isEmpty();
+        return value == null;
+    }
+
+
+    /**
+     * Renders the error message. The message is built on every call, so it is
+     * better to call it only when the message is really needed.
+     *
+     * @return error message of the exception thrown by {@link #orThrow()}
+     */
+    public String getErrorMessage() {
+        return errorMessageTemplate.render(errorMessageArgs);
     }
 
+    /**
+     * @return template of the error message, {@link NotFoundMessageTemplate#DEFAULT} unless the message was changed
+     */
+    public NotFoundMessageTemplate getErrorMessageTemplate() {
+        return errorMessageTemplate;
+    }
 
     public GetOrThrow<T> changeMessage(String errorMessage) {
-        return new GetOrThrow<>(this.value, errorMessage);
+        return new GetOrThrow<>(this.value, NotFoundMessageTemplate.literal(errorMessage), null, this.getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param errorMessageTemplate compiled template without placeholders, or rendered with the placeholders left as is
+     * @return {@code GetOrThrow} with the same value and the new error message
+     */
+    public GetOrThrow<T> changeMessage(NotFoundMessageTemplate errorMessageTemplate) {
+        return new GetOrThrow<>(this.value, errorMessageTemplate, null, this.getOrThrowExceptionFactory);
+    }
+
+    /**
+     * Binds a compiled message template and its arguments. The message is not rendered
+     * until {@link #orThrow()} throws or {@link #getErrorMessage()} is called.
+     *
+     * @param errorMessageTemplate compiled template
+     * @param args                 values for the template placeholders
+     * @return {@code GetOrThrow} with the same value and the new error message
+     */
+    public GetOrThrow<T> changeMessage(NotFoundMessageTemplate errorMessageTemplate, Object... args) {
+        return new GetOrThrow<>(this.value, errorMessageTemplate, args, this.getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @return {@code GetOrThrow} with the same value and error message, thrown by the given factory
+     */
+    public GetOrThrow<T> withExceptionFactory(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        if (getOrThrowExceptionFactory == this.getOrThrowExceptionFactory) {
+            return this;
+        }
+        return new GetOrThrow<>(this.value, this.errorMessageTemplate, this.errorMessageArgs, getOrThrowExceptionFactory);
     }
 
     /**
@@ -112,7 +281,9 @@ public class GetOrThrow<T> {
      *                              {@code null}
      */
     public void ifPresent(Consumer<? super T> action) {
-        value.ifPresent(action);
+        if (value != null) {
+            action.accept(value);
+        }
     }
 
     /**
@@ -128,7 +299,11 @@ public class GetOrThrow<T> {
      * @since 9
      */
     public void ifPresentOrElse(Consumer<? super T> action, Runnable emptyAction) {
-        value.ifPresentOrElse(action, emptyAction);
+        if (value != null) {
+            action.accept(value);
+        } else {
+            emptyAction.run();
+        }
     }
 
     /**
@@ -143,7 +318,11 @@ public class GetOrThrow<T> {
      * @throws NullPointerException if the predicate is {@code null}
      */
     public GetOrThrow<T> filter(Predicate<? super T> predicate) {
-        return new GetOrThrow<>(value.filter(predicate), this.errorMessage);
+        Objects.requireNonNull(predicate);
+        if (value == null || predicate.test(value)) {
+            return this;
+        }
+        return withValue(null);
     }
 
     /**
@@ -177,7 +356,11 @@ public class GetOrThrow<T> {
      * URI if one exists.
      */
     public <U> GetOrThrow<U> map(Function<? super T, ? extends U> mapper) {
-        return new GetOrThrow<>(value.map(mapper), this.errorMessage);
+        Objects.requireNonNull(mapper);
+        if (value == null) {
+            return self();
+        }
+        return withValue(mapper.apply(value));
     }
 
     /**
@@ -200,7 +383,12 @@ public class GetOrThrow<T> {
      *                              returns a {@code null} result
      */
     public <U> GetOrThrow<U> flatMap(Function<? super T, ? extends Optional<? extends U>> mapper) {
-        return new GetOrThrow<>(value.flatMap(mapper), this.errorMessage);
+        Objects.requireNonNull(mapper);
+        if (value == null) {
+            return self();
+        }
+        Optional<? extends U> result = Objects.requireNonNull(mapper.apply(value));
+        return withValue(result.orElse(null));
     }
 
     /**
@@ -217,7 +405,12 @@ public class GetOrThrow<T> {
      * @since 9
      */
     public GetOrThrow<T> or(Supplier<? extends Optional<? extends T>> supplier) {
-        return new GetOrThrow<>(value.or(supplier), this.errorMessage);
+        Objects.requireNonNull(supplier);
+        if (value != null) {
+            return this;
+        }
+        Optional<? extends T> result = Objects.requireNonNull(supplier.get());
+        return result.isPresent() ? withValue(result.get()) : this;
     }
 
     /**
@@ -234,7 +427,7 @@ public class GetOrThrow<T> {
      * @since 9
      */
     public Stream<T> stream() {
-        return value.stream();
+        return value == null ? Stream.empty() : Stream.of(value);
     }
 
     /**
@@ -246,7 +439,7 @@ public class GetOrThrow<T> {
      * @return the value, if present, otherwise {@code other}
      */
     public T orElse(T other) {
-        return value.orElse(other);
+        return value != null ? value : other;
     }
 
     /**
@@ -260,7 +453,7 @@ public class GetOrThrow<T> {
      *                              function is {@code null}
      */
     public T orElseGet(Supplier<? extends T> supplier) {
-        return value.orElseGet(supplier);
+        return value != null ? value : supplier.get();
     }
 
     /**
@@ -279,18 +472,42 @@ public class GetOrThrow<T> {
      * {@code IllegalStateException::new}
      */
     public <X extends Throwable> T orElseThrow(Supplier<? extends X> exceptionSupplier) throws X {
-        return value.orElseThrow(exceptionSupplier);
+        if (value != null) {
+            return value;
+        }
+        throw exceptionSupplier.get();
     }
 
     public Optional<T> optional(){
-        return value;
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Empty instances have no value, so they can be shared between all value types.
+     */
+    @SuppressWarnings("unchecked")
+    private <U> GetOrThrow<U> self() {
+        return (GetOrThrow<U>) this;
+    }
+
+    /**
+     * @return instance with the given value and the message and exception factory of this instance
+     */
+    private <U> GetOrThrow<U> withValue(U value) {
+        if (value == null && this.value == null) {
+            return self();
+        }
+        if (value == null && errorMessageTemplate == NotFoundMessageTemplate.DEFAULT && errorMessageArgs == null) {
+            return empty(getOrThrowExceptionFactory);
+        }
+        return new GetOrThrow<>(value, this.errorMessageTemplate, this.errorMessageArgs, this.getOrThrowExceptionFactory);
     }
 
     /**
-     * Indicates whether some other object is "equal to" this {@code Optional}.
+     * Indicates whether some other object is "equal to" this {@code GetOrThrow}.
      * The other object is considered equal if:
      * <ul>
-     * <li>it is also an {@code Optional} and;
+     * <li>it is also a {@code GetOrThrow} and;
      * <li>both instances have no value present or;
      * <li>the present values are "equal to" each other via {@code equals()}.
      * </ul>
@@ -301,7 +518,13 @@ public class GetOrThrow<T> {
      */
     @Override
     public boolean equals(Object obj) {
-        return value.equals(obj);
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof GetOrThrow)) {
+            return false;
+        }
+        return Objects.equals(value, ((GetOrThrow<?>) obj).value);
     }
 
     /**
@@ -313,6 +536,6 @@ public class GetOrThrow<T> {
      */
     @Override
     public int hashCode() {
-        return value.hashCode();
+        return Objects.hashCode(value);
     }
 }
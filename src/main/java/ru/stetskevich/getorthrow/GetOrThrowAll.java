@@ -0,0 +1,182 @@
+package ru.stetskevich.getorthrow;
+
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Result of a batch lookup by ids: entities loaded with one query and matched back to the requested ids.
+ * {@link #orThrow()} throws a single "Not Found" exception listing every missing id.
+ * <p>
+ * Usually returned from a default repository method annotated with
+ * {@link ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage}; the only placeholder
+ * of the template is filled with the list of missing ids:
+ * <pre>{@code
+ *     @NotFoundExceptionMessage("Not found entities with ids = {}")
+ *     default GetOrThrowAll<Long, Entity> findAllByIds(Collection<Long> ids) {
+ *         return GetOrThrowAll.of(ids, findAllById(ids), Entity::getId);
+ *     }
+ * }</pre>
+ *
+ * @param <ID> the type of the ids
+ * @param <T>  the type of the entities
+ */
+public final class GetOrThrowAll<ID, T> {
+    public static final String DEFAULT_ERROR_MESSAGE = "Entities not found by ids {}";
+
+    public static final NotFoundMessageTemplate DEFAULT_ERROR_MESSAGE_TEMPLATE = NotFoundMessageTemplate.compile(DEFAULT_ERROR_MESSAGE);
+
+    private final Map<ID, T> values;
+
+    private final Set<ID> missingIds;
+
+    private final NotFoundMessageTemplate errorMessageTemplate;
+
+    private final GetOrThrowExceptionFactory getOrThrowExceptionFactory;
+
+    private GetOrThrowAll(Map<ID, T> values, Set<ID> missingIds, NotFoundMessageTemplate errorMessageTemplate,
+                          GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        this.values = values;
+        this.missingIds = missingIds;
+        this.errorMessageTemplate = errorMessageTemplate;
+        this.getOrThrowExceptionFactory = getOrThrowExceptionFactory;
+    }
+
+    public static <ID, T> GetOrThrowAll<ID, T> of(Collection<ID> ids, Iterable<T> found, Function<? super T, ? extends ID> idExtractor) {
+        return of(ids, found, idExtractor, GetOrThrowExceptionFactory.DEFAULT);
+    }
+
+    /**
+     * Matches the found entities to the requested ids.
+     *
+     * @param ids                        requested ids, duplicates are ignored
+     * @param found                      entities loaded by the ids, e.g. with {@code findAllById(ids)}
+     * @param idExtractor                returns the id of an entity
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @return batch result in the order of the requested ids
+     */
+    public static <ID, T> GetOrThrowAll<ID, T> of(Collection<ID> ids, Iterable<T> found, Function<? super T, ? extends ID> idExtractor,
+                                                  GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        Map<ID, T> foundById = new HashMap<>();
+        for (T entity : found) {
+            foundById.put(idExtractor.apply(entity), entity);
+        }
+        Map<ID, T> values = new LinkedHashMap<>(foundById.size() * 4 / 3 + 1);
+        Set<ID> missingIds = new LinkedHashSet<>();
+        for (ID id : ids) {
+            T entity = foundById.get(id);
+            if (entity == null) {
+                missingIds.add(id);
+            } else {
+                values.put(id, entity);
+            }
+        }
+        return new GetOrThrowAll<>(values, missingIds, DEFAULT_ERROR_MESSAGE_TEMPLATE, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @return found entities in the order of the requested ids
+     * @throws RuntimeException from {@link GetOrThrowExceptionFactory} if some ids were not found
+     */
+    public List<T> orThrow() {
+        throwIfIncomplete();
+        return new ArrayList<>(values.values());
+    }
+
+    /**
+     * @return found entities by their ids in the order of the requested ids
+     * @throws RuntimeException from {@link GetOrThrowExceptionFactory} if some ids were not found
+     */
+    public Map<ID, T> orThrowAsMap() {
+        throwIfIncomplete();
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @return {@code true} if every requested id was found
+     */
+    public boolean isComplete() {
+        return missingIds.isEmpty();
+    }
+
+    /**
+     * @return missing ids in the order of the requested ids
+     */
+    public List<ID> getMissingIds() {
+        return Collections.unmodifiableList(new ArrayList<>(missingIds));
+    }
+
+    /**
+     * @return entities found so far, without throwing for the missing ids
+     */
+    public List<T> getFound() {
+        return new ArrayList<>(values.values());
+    }
+
+    /**
+     * @return error message listing the missing ids
+     */
+    public String getErrorMessage() {
+        return errorMessageTemplate.render(new Object[]{getMissingIds()});
+    }
+
+    /**
+     * @return template of the error message, {@link #DEFAULT_ERROR_MESSAGE_TEMPLATE} unless the message was changed
+     */
+    public NotFoundMessageTemplate getErrorMessageTemplate() {
+        return errorMessageTemplate;
+    }
+
+    /**
+     * @param errorMessage message thrown as is, without the list of missing ids
+     * @return result with the same entities and the new error message
+     */
+    public GetOrThrowAll<ID, T> changeMessage(String errorMessage) {
+        return changeMessage(NotFoundMessageTemplate.literal(errorMessage));
+    }
+
+    /**
+     * @param errorMessageTemplate template with one {@code {}} placeholder for the list of missing ids
+     * @return result with the same entities and the new error message
+     */
+    public GetOrThrowAll<ID, T> changeMessageTemplate(String errorMessageTemplate) {
+        return changeMessage(NotFoundMessageTemplate.compile(errorMessageTemplate));
+    }
+
+    /**
+     * @param errorMessageTemplate template with one placeholder for the list of missing ids
+     * @return result with the same entities and the new error message
+     */
+    public GetOrThrowAll<ID, T> changeMessage(NotFoundMessageTemplate errorMessageTemplate) {
+        return new GetOrThrowAll<>(values, missingIds, errorMessageTemplate, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @return result with the same entities and message thrown by the given factory
+     */
+    public GetOrThrowAll<ID, T> withExceptionFactory(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        if (getOrThrowExceptionFactory == this.getOrThrowExceptionFactory) {
+            return this;
+        }
+        return new GetOrThrowAll<>(values, missingIds, errorMessageTemplate, getOrThrowExceptionFactory);
+    }
+
+    private void throwIfIncomplete() {
+        if (!missingIds.isEmpty()) {
+            throw getOrThrowExceptionFactory.createException(
+                    new NotFoundContext(errorMessageTemplate, new Object[]{getMissingIds()}));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package ru.stetskevich.getorthrow;
+
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * {@link GetOrThrow} of a {@code double} value, for repository methods returning scalar projections:
+ * <pre>{@code
+ *     @NotFoundExceptionMessage("Not found entity with id = {}")
+ *     @Query("select e.balance from Entity e where e.id = :id")
+ *     GetOrThrowDouble findValueById(@Param("id") Long id);
+ * }</pre>
+ * The value is kept unboxed, so {@link #orThrow()}, {@link #map(DoubleUnaryOperator)} and {@link #filter(DoublePredicate)}
+ * do not box it.
+ */
+public final class GetOrThrowDouble extends GetOrThrowScalar<GetOrThrowDouble> {
+
+    private static final GetOrThrowDouble EMPTY = new GetOrThrowDouble();
+
+    private final double value;
+
+    /**
+     * The preferred constructor for Spring Data: without parameters {@code GetOrThrowDouble}
+     * is not mistaken for a DTO projection of the entity properties.
+     */
+    private GetOrThrowDouble() {
+        this(false, 0.0, NotFoundMessageTemplate.DEFAULT, null, GetOrThrowExceptionFactory.DEFAULT);
+    }
+
+    private GetOrThrowDouble(boolean present, double value, NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs,
+                             GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        super(present, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+        this.value = value;
+    }
+
+    /**
+     * @return shared empty instance with the default message and exception factory
+     */
+    public static GetOrThrowDouble empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @return empty {@code GetOrThrowDouble}
+     */
+    public static GetOrThrowDouble empty(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return EMPTY.withExceptionFactory(getOrThrowExceptionFactory);
+    }
+
+    public static GetOrThrowDouble of(double value) {
+        return new GetOrThrowDouble(true, value, NotFoundMessageTemplate.DEFAULT, null, GetOrThrowExceptionFactory.DEFAULT);
+    }
+
+    public static GetOrThrowDouble of(double value, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return new GetOrThrowDouble(true, value, NotFoundMessageTemplate.DEFAULT, null, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * Static finder of Spring's conversion of scalar query results, see {@link GetOrThrowScalar}.
+     *
+     * @param result number, single column tuple exposed as {@code Map} or {@code null}
+     * @return {@code GetOrThrowDouble} with the default message and exception factory
+     */
+    public static GetOrThrowDouble findGetOrThrowDouble(Object result) {
+        Number value = scalarValue(result);
+        return value == null ? EMPTY : of(value.doubleValue());
+    }
+
+    /**
+     * @param value boxed value, may be {@code null}
+     * @return {@code GetOrThrowDouble} with the value or empty for {@code null}
+     */
+    public static GetOrThrowDouble ofNullable(Double value) {
+        return value == null ? EMPTY : of(value);
+    }
+
+    /**
+     * @return the value
+     * @throws RuntimeException created by {@link GetOrThrowExceptionFactory} if there is no value
+     */
+    public double orThrow() {
+        if (present) {
+            return value;
+        }
+        throw notFound();
+    }
+
+    public double orThrow(String errorMessage) {
+        if (present) {
+            return value;
+        }
+        throw notFound(errorMessage);
+    }
+
+    public double orElse(double other) {
+        return present ? value : other;
+    }
+
+    public void ifPresent(DoubleConsumer action) {
+        if (present) {
+            action.accept(value);
+        }
+    }
+
+    /**
+     * @param mapper function applied to the value, if present
+     * @return {@code GetOrThrowDouble} with the mapped value and the same error message, or this instance if empty
+     */
+    public GetOrThrowDouble map(DoubleUnaryOperator mapper) {
+        if (!present) {
+            return this;
+        }
+        return new GetOrThrowDouble(true, mapper.applyAsDouble(value), errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param mapper function applied to the value, if present
+     * @return {@link GetOrThrow} with the mapped value and the same error message
+     */
+    public <U> GetOrThrow<U> mapToObj(DoubleFunction<? extends U> mapper) {
+        GetOrThrow<U> result = GetOrThrow.of(present ? mapper.apply(value) : null, getOrThrowExceptionFactory);
+        return result.changeMessage(errorMessageTemplate, errorMessageArgs);
+    }
+
+    /**
+     * @param predicate predicate applied to the value, if present
+     * @return this instance if the value matches, otherwise empty {@code GetOrThrowDouble} with the same error message
+     */
+    public GetOrThrowDouble filter(DoublePredicate predicate) {
+        if (!present || predicate.test(value)) {
+            return this;
+        }
+        return new GetOrThrowDouble(false, 0.0, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    @Override
+    GetOrThrowDouble copy(NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return new GetOrThrowDouble(present, value, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof GetOrThrowDouble)) {
+            return false;
+        }
+        GetOrThrowDouble other = (GetOrThrowDouble) obj;
+        return present && other.present ? Double.compare(value, other.value) == 0 : present == other.present;
+    }
+
+    @Override
+    public int hashCode() {
+        return present ? Double.hashCode(value) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return present ? "GetOrThrowDouble[" + value + "]" : "GetOrThrowDouble.empty";
+    }
+}
@@ -0,0 +1,157 @@
+package ru.stetskevich.getorthrow;
+
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+/**
+ * Result of an existence check: {@link GetOrThrow} without the entity. Returned from repository methods
+ * that only validate existence, so the entity is neither loaded nor added to the persistence context:
+ * <pre>{@code
+ *     @NotFoundExceptionMessage("Not found entity with id = {}")
+ *     GetOrThrowExists existsOneById(Long id);
+ * }</pre>
+ * Spring Data runs an {@code exists} query for derived {@code existsBy...} methods; any other method
+ * returning {@code boolean}, e.g. a default method calling {@code existsById}, can be used as well.
+ */
+public final class GetOrThrowExists {
+
+    private static final GetOrThrowExists PRESENT = new GetOrThrowExists(true, NotFoundMessageTemplate.DEFAULT, null,
+            GetOrThrowExceptionFactory.DEFAULT);
+
+    private static final GetOrThrowExists EMPTY = new GetOrThrowExists(false, NotFoundMessageTemplate.DEFAULT, null,
+            GetOrThrowExceptionFactory.DEFAULT);
+
+    private final boolean present;
+
+    private final NotFoundMessageTemplate errorMessageTemplate;
+
+    private final Object[] errorMessageArgs;
+
+    private final GetOrThrowExceptionFactory getOrThrowExceptionFactory;
+
+    /**
+     * The preferred constructor for Spring Data: without parameters {@code GetOrThrowExists}
+     * is not mistaken for a DTO projection of the entity properties.
+     */
+    private GetOrThrowExists() {
+        this(false, NotFoundMessageTemplate.DEFAULT, null, GetOrThrowExceptionFactory.DEFAULT);
+    }
+
+    private GetOrThrowExists(boolean present, NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs,
+                             GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        this.present = present;
+        this.errorMessageTemplate = errorMessageTemplate;
+        this.errorMessageArgs = errorMessageArgs;
+        this.getOrThrowExceptionFactory = getOrThrowExceptionFactory;
+    }
+
+    /**
+     * @param exists result of the existence check
+     * @return shared instance with the default message and exception factory
+     */
+    public static GetOrThrowExists of(boolean exists) {
+        return exists ? PRESENT : EMPTY;
+    }
+
+    /**
+     * @param exists                     result of the existence check
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @return {@code GetOrThrowExists} with the default message
+     */
+    public static GetOrThrowExists of(boolean exists, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        if (getOrThrowExceptionFactory == GetOrThrowExceptionFactory.DEFAULT) {
+            return of(exists);
+        }
+        return new GetOrThrowExists(exists, NotFoundMessageTemplate.DEFAULT, null, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * Converts the {@code Boolean} of an {@code exists} query. Spring Data treats {@code GetOrThrowExists} as a DTO
+     * projection and converts the query result with {@code DefaultConversionService.getSharedInstance()}: its stock
+     * {@code ObjectToObjectConverter} calls this factory method, so no converter is registered in the shared instance.
+     * The advice binds the result to the message and exception factory of the method afterwards.
+     *
+     * @param exists result of the existence check, {@code null} is absent
+     * @return shared instance with the default message and exception factory
+     */
+    public static GetOrThrowExists valueOf(Boolean exists) {
+        return of(Boolean.TRUE.equals(exists));
+    }
+
+    /**
+     * Throws the "Not Found" exception if the entity does not exist.
+     */
+    public void orThrow() {
+        if (!present) {
+            throw getOrThrowExceptionFactory.createException(new NotFoundContext(errorMessageTemplate, errorMessageArgs));
+        }
+    }
+
+    public void orThrow(String errorMessage) {
+        if (!present) {
+            throw getOrThrowExceptionFactory.createException(errorMessage);
+        }
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    public boolean isEmpty() {
+        return !present;
+    }
+
+    /**
+     * @return error message of the exception thrown by {@link #orThrow()}
+     */
+    public String getErrorMessage() {
+        return errorMessageTemplate.render(errorMessageArgs);
+    }
+
+    /**
+     * @return template of the error message, {@link NotFoundMessageTemplate#DEFAULT} unless the message was changed
+     */
+    public NotFoundMessageTemplate getErrorMessageTemplate() {
+        return errorMessageTemplate;
+    }
+
+    public GetOrThrowExists changeMessage(String errorMessage) {
+        return new GetOrThrowExists(present, NotFoundMessageTemplate.literal(errorMessage), null, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param errorMessageTemplate compiled template
+     * @param args                 values for the template placeholders
+     * @return {@code GetOrThrowExists} with the same result and the new error message
+     */
+    public GetOrThrowExists changeMessage(NotFoundMessageTemplate errorMessageTemplate, Object... args) {
+        return new GetOrThrowExists(present, errorMessageTemplate, args, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @return {@code GetOrThrowExists} with the same result and message, thrown by the given factory
+     */
+    public GetOrThrowExists withExceptionFactory(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        if (getOrThrowExceptionFactory == this.getOrThrowExceptionFactory) {
+            return this;
+        }
+        return new GetOrThrowExists(present, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || obj instanceof GetOrThrowExists && present == ((GetOrThrowExists) obj).present;
+    }
+
+    @Override
+    public int hashCode() {
+        return Boolean.hashCode(present);
+    }
+
+    @Override
+    public String toString() {
+        return present ? "GetOrThrowExists[present]" : "GetOrThrowExists.empty";
+    }
+}
@@ -0,0 +1,179 @@
+package ru.stetskevich.getorthrow;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent lookups concurrently and returns their values once all of them are found,
+ * so the latency of the lookups is that of the slowest one instead of their sum:
+ * <pre>{@code
+ *     GetOrThrowTuple.Of2<User, Order> found = GetOrThrow.all(
+ *             () -> userRepository.findOneById(userId),
+ *             () -> orderRepository.findOneById(orderId));
+ * }</pre>
+ * The first empty result cancels the lookups still running and is thrown with its own
+ * {@link ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory} and message,
+ * the same exception {@link GetOrThrow#orThrow()} of that lookup would throw. Exceptions of the lookups
+ * are rethrown the same way.
+ * <p>
+ * Lookups run on other threads, so they do not join the transaction of the caller and do not see
+ * its request attributes.
+ */
+public final class GetOrThrowFanOut {
+
+    static final String VIRTUAL_THREAD_EXECUTOR = "newVirtualThreadPerTaskExecutor";
+
+    static final String FALLBACK_THREAD_PREFIX = "get-or-throw-fan-out-";
+
+    private final Executor executor;
+
+    private GetOrThrowFanOut(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return fan-out on a virtual thread per lookup when the JVM has virtual threads,
+     * otherwise on a shared cached pool of daemon threads
+     */
+    public static GetOrThrowFanOut defaultFanOut() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * @param executor executor the lookups are submitted to, e.g. a bounded pool matching the connection pool
+     * @return fan-out on the executor
+     */
+    public static GetOrThrowFanOut on(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null");
+        }
+        return new GetOrThrowFanOut(executor);
+    }
+
+    public <A, B> GetOrThrowTuple.Of2<A, B> all(Supplier<GetOrThrow<A>> first, Supplier<GetOrThrow<B>> second) {
+        return new GetOrThrowTuple.Of2<>(await(first, second));
+    }
+
+    public <A, B, C> GetOrThrowTuple.Of3<A, B, C> all(Supplier<GetOrThrow<A>> first, Supplier<GetOrThrow<B>> second,
+                                                     Supplier<GetOrThrow<C>> third) {
+        return new GetOrThrowTuple.Of3<>(await(first, second, third));
+    }
+
+    public <A, B, C, D> GetOrThrowTuple.Of4<A, B, C, D> all(Supplier<GetOrThrow<A>> first, Supplier<GetOrThrow<B>> second,
+                                                           Supplier<GetOrThrow<C>> third, Supplier<GetOrThrow<D>> fourth) {
+        return new GetOrThrowTuple.Of4<>(await(first, second, third, fourth));
+    }
+
+    public <A, B, C, D, E> GetOrThrowTuple.Of5<A, B, C, D, E> all(Supplier<GetOrThrow<A>> first, Supplier<GetOrThrow<B>> second,
+                                                                 Supplier<GetOrThrow<C>> third, Supplier<GetOrThrow<D>> fourth,
+                                                                 Supplier<GetOrThrow<E>> fifth) {
+        return new GetOrThrowTuple.Of5<>(await(first, second, third, fourth, fifth));
+    }
+
+    /**
+     * @param lookups any number of lookups of the same type
+     * @return values in the order of the lookups
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> all(List<? extends Supplier<? extends GetOrThrow<? extends T>>> lookups) {
+        return (List<T>) Arrays.asList(await(lookups.toArray(new Supplier<?>[0])));
+    }
+
+    private Object[] await(Supplier<?>... lookups) {
+        ExecutorCompletionService<Completed> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Completed>> futures = new ArrayList<>(lookups.length);
+        Object[] values = new Object[lookups.length];
+        int completed = 0;
+        try {
+            for (int i = 0; i < lookups.length; i++) {
+                int index = i;
+                Supplier<?> lookup = lookups[i];
+                futures.add(completionService.submit(() -> new Completed(index, (GetOrThrow<?>) lookup.get())));
+            }
+            for (; completed < lookups.length; completed++) {
+                Completed result = completionService.take().get();
+                values[result.index] = result.value.orThrow();
+            }
+            return values;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for lookups", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Lookup failed", cause);
+        } finally {
+            if (completed < lookups.length) {
+                for (Future<Completed> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private static final class Completed {
+
+        private final int index;
+
+        private final GetOrThrow<?> value;
+
+        private Completed(int index, GetOrThrow<?> value) {
+            this.index = index;
+            this.value = value == null ? GetOrThrow.empty() : value;
+        }
+    }
+
+    /**
+     * Virtual threads are looked up reflectively: the starter also runs on JVMs without them.
+     *
+     * @param factoryMethod name of the static {@link Executors} method creating the executor
+     * @return executor created by the method, a cached pool of daemon threads if there is no such method
+     */
+    static ExecutorService defaultExecutor(String factoryMethod) {
+        try {
+            MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class, factoryMethod,
+                    MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) factory.invoke();
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // no virtual threads or a JVM where they are a preview feature
+            return Executors.newCachedThreadPool(new DaemonThreadFactory());
+        }
+    }
+
+    private static final class DefaultHolder {
+
+        private static final GetOrThrowFanOut INSTANCE = new GetOrThrowFanOut(defaultExecutor(VIRTUAL_THREAD_EXECUTOR));
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, FALLBACK_THREAD_PREFIX + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
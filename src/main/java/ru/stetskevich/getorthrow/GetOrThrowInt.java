@@ -0,0 +1,168 @@
+package ru.stetskevich.getorthrow;
+
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * {@link GetOrThrow} of an {@code int} value, for repository methods returning scalar projections:
+ * <pre>{@code
+ *     @NotFoundExceptionMessage("Not found entity with id = {}")
+ *     @Query("select e.quantity from Entity e where e.id = :id")
+ *     GetOrThrowInt findValueById(@Param("id") Long id);
+ * }</pre>
+ * The value is kept unboxed, so {@link #orThrow()}, {@link #map(IntUnaryOperator)} and {@link #filter(IntPredicate)}
+ * do not box it.
+ */
+public final class GetOrThrowInt extends GetOrThrowScalar<GetOrThrowInt> {
+
+    private static final GetOrThrowInt EMPTY = new GetOrThrowInt();
+
+    private final int value;
+
+    /**
+     * The preferred constructor for Spring Data: without parameters {@code GetOrThrowInt}
+     * is not mistaken for a DTO projection of the entity properties.
+     */
+    private GetOrThrowInt() {
+        this(false, 0, NotFoundMessageTemplate.DEFAULT, null, GetOrThrowExceptionFactory.DEFAULT);
+    }
+
+    private GetOrThrowInt(boolean present, int value, NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs,
+                          GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        super(present, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+        this.value = value;
+    }
+
+    /**
+     * @return shared empty instance with the default message and exception factory
+     */
+    public static GetOrThrowInt empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @return empty {@code GetOrThrowInt}
+     */
+    public static GetOrThrowInt empty(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return EMPTY.withExceptionFactory(getOrThrowExceptionFactory);
+    }
+
+    public static GetOrThrowInt of(int value) {
+        return new GetOrThrowInt(true, value, NotFoundMessageTemplate.DEFAULT, null, GetOrThrowExceptionFactory.DEFAULT);
+    }
+
+    public static GetOrThrowInt of(int value, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return new GetOrThrowInt(true, value, NotFoundMessageTemplate.DEFAULT, null, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * Static finder of Spring's conversion of scalar query results, see {@link GetOrThrowScalar}.
+     *
+     * @param result number, single column tuple exposed as {@code Map} or {@code null}
+     * @return {@code GetOrThrowInt} with the default message and exception factory
+     */
+    public static GetOrThrowInt findGetOrThrowInt(Object result) {
+        Number value = scalarValue(result);
+        return value == null ? EMPTY : of(value.intValue());
+    }
+
+    /**
+     * @param value boxed value, may be {@code null}
+     * @return {@code GetOrThrowInt} with the value or empty for {@code null}
+     */
+    public static GetOrThrowInt ofNullable(Integer value) {
+        return value == null ? EMPTY : of(value);
+    }
+
+    /**
+     * @return the value
+     * @throws RuntimeException created by {@link GetOrThrowExceptionFactory} if there is no value
+     */
+    public int orThrow() {
+        if (present) {
+            return value;
+        }
+        throw notFound();
+    }
+
+    public int orThrow(String errorMessage) {
+        if (present) {
+            return value;
+        }
+        throw notFound(errorMessage);
+    }
+
+    public int orElse(int other) {
+        return present ? value : other;
+    }
+
+    public void ifPresent(IntConsumer action) {
+        if (present) {
+            action.accept(value);
+        }
+    }
+
+    /**
+     * @param mapper function applied to the value, if present
+     * @return {@code GetOrThrowInt} with the mapped value and the same error message, or this instance if empty
+     */
+    public GetOrThrowInt map(IntUnaryOperator mapper) {
+        if (!present) {
+            return this;
+        }
+        return new GetOrThrowInt(true, mapper.applyAsInt(value), errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param mapper function applied to the value, if present
+     * @return {@link GetOrThrow} with the mapped value and the same error message
+     */
+    public <U> GetOrThrow<U> mapToObj(IntFunction<? extends U> mapper) {
+        GetOrThrow<U> result = GetOrThrow.of(present ? mapper.apply(value) : null, getOrThrowExceptionFactory);
+        return result.changeMessage(errorMessageTemplate, errorMessageArgs);
+    }
+
+    /**
+     * @param predicate predicate applied to the value, if present
+     * @return this instance if the value matches, otherwise empty {@code GetOrThrowInt} with the same error message
+     */
+    public GetOrThrowInt filter(IntPredicate predicate) {
+        if (!present || predicate.test(value)) {
+            return this;
+        }
+        return new GetOrThrowInt(false, 0, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    @Override
+    GetOrThrowInt copy(NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return new GetOrThrowInt(present, value, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof GetOrThrowInt)) {
+            return false;
+        }
+        GetOrThrowInt other = (GetOrThrowInt) obj;
+        return present && other.present ? value == other.value : present == other.present;
+    }
+
+    @Override
+    public int hashCode() {
+        return present ? Integer.hashCode(value) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return present ? "GetOrThrowInt[" + value + "]" : "GetOrThrowInt.empty";
+    }
+}
@@ -0,0 +1,168 @@
+package ru.stetskevich.getorthrow;
+
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * {@link GetOrThrow} of a {@code long} value, for repository methods returning scalar projections:
+ * <pre>{@code
+ *     @NotFoundExceptionMessage("Not found entity with id = {}")
+ *     @Query("select e.version from Entity e where e.id = :id")
+ *     GetOrThrowLong findValueById(@Param("id") Long id);
+ * }</pre>
+ * The value is kept unboxed, so {@link #orThrow()}, {@link #map(LongUnaryOperator)} and {@link #filter(LongPredicate)}
+ * do not box it.
+ */
+public final class GetOrThrowLong extends GetOrThrowScalar<GetOrThrowLong> {
+
+    private static final GetOrThrowLong EMPTY = new GetOrThrowLong();
+
+    private final long value;
+
+    /**
+     * The preferred constructor for Spring Data: without parameters {@code GetOrThrowLong}
+     * is not mistaken for a DTO projection of the entity properties.
+     */
+    private GetOrThrowLong() {
+        this(false, 0L, NotFoundMessageTemplate.DEFAULT, null, GetOrThrowExceptionFactory.DEFAULT);
+    }
+
+    private GetOrThrowLong(boolean present, long value, NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs,
+                           GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        super(present, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+        this.value = value;
+    }
+
+    /**
+     * @return shared empty instance with the default message and exception factory
+     */
+    public static GetOrThrowLong empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @return empty {@code GetOrThrowLong}
+     */
+    public static GetOrThrowLong empty(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return EMPTY.withExceptionFactory(getOrThrowExceptionFactory);
+    }
+
+    public static GetOrThrowLong of(long value) {
+        return new GetOrThrowLong(true, value, NotFoundMessageTemplate.DEFAULT, null, GetOrThrowExceptionFactory.DEFAULT);
+    }
+
+    public static GetOrThrowLong of(long value, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return new GetOrThrowLong(true, value, NotFoundMessageTemplate.DEFAULT, null, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * Static finder of Spring's conversion of scalar query results, see {@link GetOrThrowScalar}.
+     *
+     * @param result number, single column tuple exposed as {@code Map} or {@code null}
+     * @return {@code GetOrThrowLong} with the default message and exception factory
+     */
+    public static GetOrThrowLong findGetOrThrowLong(Object result) {
+        Number value = scalarValue(result);
+        return value == null ? EMPTY : of(value.longValue());
+    }
+
+    /**
+     * @param value boxed value, may be {@code null}
+     * @return {@code GetOrThrowLong} with the value or empty for {@code null}
+     */
+    public static GetOrThrowLong ofNullable(Long value) {
+        return value == null ? EMPTY : of(value);
+    }
+
+    /**
+     * @return the value
+     * @throws RuntimeException created by {@link GetOrThrowExceptionFactory} if there is no value
+     */
+    public long orThrow() {
+        if (present) {
+            return value;
+        }
+        throw notFound();
+    }
+
+    public long orThrow(String errorMessage) {
+        if (present) {
+            return value;
+        }
+        throw notFound(errorMessage);
+    }
+
+    public long orElse(long other) {
+        return present ? value : other;
+    }
+
+    public void ifPresent(LongConsumer action) {
+        if (present) {
+            action.accept(value);
+        }
+    }
+
+    /**
+     * @param mapper function applied to the value, if present
+     * @return {@code GetOrThrowLong} with the mapped value and the same error message, or this instance if empty
+     */
+    public GetOrThrowLong map(LongUnaryOperator mapper) {
+        if (!present) {
+            return this;
+        }
+        return new GetOrThrowLong(true, mapper.applyAsLong(value), errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param mapper function applied to the value, if present
+     * @return {@link GetOrThrow} with the mapped value and the same error message
+     */
+    public <U> GetOrThrow<U> mapToObj(LongFunction<? extends U> mapper) {
+        GetOrThrow<U> result = GetOrThrow.of(present ? mapper.apply(value) : null, getOrThrowExceptionFactory);
+        return result.changeMessage(errorMessageTemplate, errorMessageArgs);
+    }
+
+    /**
+     * @param predicate predicate applied to the value, if present
+     * @return this instance if the value matches, otherwise empty {@code GetOrThrowLong} with the same error message
+     */
+    public GetOrThrowLong filter(LongPredicate predicate) {
+        if (!present || predicate.test(value)) {
+            return this;
+        }
+        return new GetOrThrowLong(false, 0L, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    @Override
+    GetOrThrowLong copy(NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return new GetOrThrowLong(present, value, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof GetOrThrowLong)) {
+            return false;
+        }
+        GetOrThrowLong other = (GetOrThrowLong) obj;
+        return present && other.present ? value == other.value : present == other.present;
+    }
+
+    @Override
+    public int hashCode() {
+        return present ? Long.hashCode(value) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return present ? "GetOrThrowLong[" + value + "]" : "GetOrThrowLong.empty";
+    }
+}
@@ -0,0 +1,130 @@
+package ru.stetskevich.getorthrow;
+
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.util.Map;
+
+/**
+ * Common part of {@link GetOrThrowLong}, {@link GetOrThrowInt} and {@link GetOrThrowDouble}: presence, the error message
+ * and the exception factory. The unboxed value and the operations on it are declared by the subclasses,
+ * so they stay free of boxing.
+ * <p>
+ * Spring Data treats the scalar types as DTO projections and converts query results to them with
+ * {@code DefaultConversionService.getSharedInstance()}. Its stock {@code IdToEntityConverter} calls the static
+ * {@code find...} method of the target type for a result of any type, including the single column tuple Jpa returns
+ * for a {@code @Query} projection, so the starter registers no converter in that shared instance.
+ *
+ * @param <S> the concrete type
+ */
+public abstract class GetOrThrowScalar<S extends GetOrThrowScalar<S>> {
+
+    final boolean present;
+
+    final NotFoundMessageTemplate errorMessageTemplate;
+
+    final Object[] errorMessageArgs;
+
+    final GetOrThrowExceptionFactory getOrThrowExceptionFactory;
+
+    GetOrThrowScalar(boolean present, NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs,
+                     GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        this.present = present;
+        this.errorMessageTemplate = errorMessageTemplate;
+        this.errorMessageArgs = errorMessageArgs;
+        this.getOrThrowExceptionFactory = getOrThrowExceptionFactory;
+    }
+
+    /**
+     * @param result scalar query result: a number, a single column tuple exposed as {@code Map} or {@code null}
+     * @return the number, {@code null} if there is no value
+     */
+    static Number scalarValue(Object result) {
+        if (result instanceof Map) {
+            Map<?, ?> tuple = (Map<?, ?>) result;
+            if (tuple.size() != 1) {
+                throw new IllegalArgumentException("Scalar projection must have one column, got " + tuple.keySet());
+            }
+            result = tuple.values().iterator().next();
+        }
+        return (Number) result;
+    }
+
+    /**
+     * @return instance with the same presence and value
+     */
+    abstract S copy(NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs,
+                    GetOrThrowExceptionFactory getOrThrowExceptionFactory);
+
+    /**
+     * @return exception thrown by {@code orThrow()} of an empty result
+     */
+    final RuntimeException notFound() {
+        return getOrThrowExceptionFactory.createException(new NotFoundContext(errorMessageTemplate, errorMessageArgs));
+    }
+
+    final RuntimeException notFound(String errorMessage) {
+        return getOrThrowExceptionFactory.createException(errorMessage);
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    public boolean isEmpty() {
+        return !present;
+    }
+
+    /**
+     * @return error message of the exception thrown by {@code orThrow()}
+     */
+    public String getErrorMessage() {
+        return errorMessageTemplate.render(errorMessageArgs);
+    }
+
+    /**
+     * @return template of the error message, {@link NotFoundMessageTemplate#DEFAULT} unless the message was changed
+     */
+    public NotFoundMessageTemplate getErrorMessageTemplate() {
+        return errorMessageTemplate;
+    }
+
+    public S changeMessage(String errorMessage) {
+        return copy(NotFoundMessageTemplate.literal(errorMessage), null, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param errorMessageTemplate compiled template
+     * @param args                 values for the template placeholders
+     * @return instance with the same value and the new error message
+     */
+    public S changeMessage(NotFoundMessageTemplate errorMessageTemplate, Object... args) {
+        return copy(errorMessageTemplate, args, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * Binds the error message and the exception factory in one step, without an intermediate instance.
+     *
+     * @param errorMessageTemplate       compiled template
+     * @param args                       call arguments, kept for the exception factory whatever the template renders
+     * @param getOrThrowExceptionFactory factory used by {@code orThrow()}
+     * @return instance with the same value, the new error message and the given factory
+     */
+    public S withMessage(NotFoundMessageTemplate errorMessageTemplate, Object[] args,
+                         GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return copy(errorMessageTemplate, args, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param getOrThrowExceptionFactory factory used by {@code orThrow()}
+     * @return instance with the same value and message, thrown by the given factory
+     */
+    @SuppressWarnings("unchecked")
+    public S withExceptionFactory(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        if (getOrThrowExceptionFactory == this.getOrThrowExceptionFactory) {
+            return (S) this;
+        }
+        return copy(errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+}
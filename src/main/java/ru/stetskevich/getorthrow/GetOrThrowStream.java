@@ -0,0 +1,229 @@
+package ru.stetskevich.getorthrow;
+
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Result of a query that is consumed as a stream: {@link #orThrow()} reads only the first element to tell
+ * an empty result from a non-empty one, the rest is read lazily while the returned stream is consumed.
+ * Memory stays flat for large results when the source is a cursor, e.g. a Jpa {@code Stream} query.
+ * <p>
+ * Usually returned from a default repository method annotated with
+ * {@link ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage}:
+ * <pre>{@code
+ *     @NotFoundExceptionMessage("Not found children of parent {}")
+ *     default GetOrThrowStream<Child> streamChildren(Long parentId) {
+ *         return GetOrThrowStream.of(streamAllByParentId(parentId));
+ *     }
+ * }</pre>
+ * Like a {@link Stream}, it can be consumed once. Close it, or the stream returned by {@link #orThrow()},
+ * to release the cursor; an empty result is closed before the exception is thrown.
+ *
+ * @param <T> the type of the elements
+ */
+public final class GetOrThrowStream<T> implements AutoCloseable {
+
+    private final Source<T> source;
+
+    private final NotFoundMessageTemplate errorMessageTemplate;
+
+    private final Object[] errorMessageArgs;
+
+    private final GetOrThrowExceptionFactory getOrThrowExceptionFactory;
+
+    private GetOrThrowStream(Source<T> source, NotFoundMessageTemplate errorMessageTemplate, Object[] errorMessageArgs,
+                             GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        this.source = source;
+        this.errorMessageTemplate = errorMessageTemplate;
+        this.errorMessageArgs = errorMessageArgs;
+        this.getOrThrowExceptionFactory = getOrThrowExceptionFactory;
+    }
+
+    public static <T> GetOrThrowStream<T> empty() {
+        return of(Stream.empty());
+    }
+
+    public static <T> GetOrThrowStream<T> empty(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return of(Stream.empty(), getOrThrowExceptionFactory);
+    }
+
+    public static <T> GetOrThrowStream<T> of(Stream<T> stream) {
+        return of(stream, GetOrThrowExceptionFactory.DEFAULT);
+    }
+
+    /**
+     * @param stream                     elements, not consumed until the result is checked
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @return result over the stream
+     */
+    public static <T> GetOrThrowStream<T> of(Stream<T> stream, GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        return new GetOrThrowStream<>(new Source<>(stream == null ? Stream.empty() : stream), NotFoundMessageTemplate.DEFAULT,
+                null, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @return all elements, read lazily; closing the returned stream closes the source
+     * @throws RuntimeException from {@link GetOrThrowExceptionFactory} if there are no elements
+     */
+    public Stream<T> orThrow() {
+        if (source.isEmpty()) {
+            source.close();
+            throw getOrThrowExceptionFactory.createException(new NotFoundContext(errorMessageTemplate, errorMessageArgs));
+        }
+        return source.stream();
+    }
+
+    public Stream<T> orThrow(String errorMessage) {
+        if (source.isEmpty()) {
+            source.close();
+            throw getOrThrowExceptionFactory.createException(errorMessage);
+        }
+        return source.stream();
+    }
+
+    /**
+     * Reads the first element if it was not read yet; it is still returned by {@link #orThrow()}.
+     *
+     * @return {@code true} if there is at least one element
+     */
+    public boolean isPresent() {
+        return !source.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return source.isEmpty();
+    }
+
+    public String getErrorMessage() {
+        return errorMessageTemplate.render(errorMessageArgs);
+    }
+
+    /**
+     * @return template of the error message, {@link NotFoundMessageTemplate#DEFAULT} unless the message was changed
+     */
+    public NotFoundMessageTemplate getErrorMessageTemplate() {
+        return errorMessageTemplate;
+    }
+
+    public GetOrThrowStream<T> changeMessage(String errorMessage) {
+        return new GetOrThrowStream<>(source, NotFoundMessageTemplate.literal(errorMessage), null, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param errorMessageTemplate compiled template
+     * @param args                 values for the placeholders
+     * @return result over the same elements with the new error message
+     */
+    public GetOrThrowStream<T> changeMessage(NotFoundMessageTemplate errorMessageTemplate, Object... args) {
+        return new GetOrThrowStream<>(source, errorMessageTemplate, args, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * @param getOrThrowExceptionFactory factory used by {@link #orThrow()}
+     * @return result over the same elements with the same message, thrown by the given factory
+     */
+    public GetOrThrowStream<T> withExceptionFactory(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        if (getOrThrowExceptionFactory == this.getOrThrowExceptionFactory) {
+            return this;
+        }
+        return new GetOrThrowStream<>(source, errorMessageTemplate, errorMessageArgs, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * Closes the source stream, e.g. when the result is not consumed.
+     */
+    @Override
+    public void close() {
+        source.close();
+    }
+
+    /**
+     * Source stream with the first element read ahead. Shared by the results with changed messages.
+     */
+    private static final class Source<T> implements Spliterator<T>, Consumer<T> {
+
+        private final Stream<T> stream;
+
+        private Spliterator<T> spliterator;
+
+        private T first;
+
+        private boolean firstRead;
+
+        private boolean empty;
+
+        private boolean firstReturned;
+
+        private Source(Stream<T> stream) {
+            this.stream = stream;
+        }
+
+        boolean isEmpty() {
+            if (!firstRead) {
+                spliterator = stream.spliterator();
+                firstRead = true;
+                empty = !spliterator.tryAdvance(this);
+                firstReturned = empty;
+            }
+            return empty;
+        }
+
+        Stream<T> stream() {
+            return StreamSupport.stream(this, false).onClose(stream::close);
+        }
+
+        void close() {
+            stream.close();
+        }
+
+        @Override
+        public void accept(T element) {
+            first = element;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (!firstReturned) {
+                firstReturned = true;
+                T element = first;
+                first = null;
+                action.accept(element);
+                return true;
+            }
+            return spliterator.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (!firstReturned) {
+                firstReturned = true;
+                T element = first;
+                first = null;
+                action.accept(element);
+            }
+            spliterator.forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = spliterator.estimateSize();
+            return firstReturned || size == Long.MAX_VALUE ? size : size + 1;
+        }
+
+        @Override
+        public int characteristics() {
+            return spliterator.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.stetskevich.getorthrow;
+
+import java.util.Arrays;
+
+/**
+ * Values of lookups resolved together by {@link GetOrThrowFanOut}, in the order of the lookups.
+ * Every value is present: the fan-out throws before a tuple with a missing value could be created.
+ */
+public abstract class GetOrThrowTuple {
+
+    final Object[] values;
+
+    private GetOrThrowTuple(Object[] values) {
+        this.values = values;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || obj instanceof GetOrThrowTuple && Arrays.equals(values, ((GetOrThrowTuple) obj).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "GetOrThrowTuple" + Arrays.toString(values);
+    }
+
+    public static class Of2<A, B> extends GetOrThrowTuple {
+
+        Of2(Object[] values) {
+            super(values);
+        }
+
+        @SuppressWarnings("unchecked")
+        public A getFirst() {
+            return (A) values[0];
+        }
+
+        @SuppressWarnings("unchecked")
+        public B getSecond() {
+            return (B) values[1];
+        }
+    }
+
+    public static class Of3<A, B, C> extends Of2<A, B> {
+
+        Of3(Object[] values) {
+            super(values);
+        }
+
+        @SuppressWarnings("unchecked")
+        public C getThird() {
+            return (C) values[2];
+        }
+    }
+
+    public static class Of4<A, B, C, D> extends Of3<A, B, C> {
+
+        Of4(Object[] values) {
+            super(values);
+        }
+
+        @SuppressWarnings("unchecked")
+        public D getFourth() {
+            return (D) values[3];
+        }
+    }
+
+    public static final class Of5<A, B, C, D, E> extends Of4<A, B, C, D> {
+
+        Of5(Object[] values) {
+            super(values);
+        }
+
+        @SuppressWarnings("unchecked")
+        public E getFifth() {
+            return (E) values[4];
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.stetskevich.getorthrow.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The first argument of the annotated repository method is an id checked against the
+ * {@link ru.stetskevich.getorthrow.index.ExistenceIndex} bean of the returned entity type before the query.
+ * If the index says the id is definitely absent, the empty {@link ru.stetskevich.getorthrow.GetOrThrow}
+ * is returned without calling the repository.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExistenceIndexed {
+}
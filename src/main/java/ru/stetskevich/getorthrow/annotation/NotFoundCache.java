@@ -0,0 +1,29 @@
+package ru.stetskevich.getorthrow.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches empty results of a repository method returning {@link ru.stetskevich.getorthrow.GetOrThrow}
+ * by the call arguments, so repeated lookups of missing entities do not reach the database.
+ * The cache of the repository is cleared when its {@code save*} or {@code insert*} method is called.
+ * <p>
+ * An empty result read before a concurrent clear is not cached. A save inside a transaction clears the cache before
+ * the commit, so a lookup between the clear and the commit may cache the absent entity until the TTL expires.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NotFoundCache {
+
+    /**
+     * @return how long an empty result is cached, in seconds
+     */
+    long ttlSeconds() default 60;
+
+    /**
+     * @return maximum number of cached argument sets of the method
+     */
+    int maxSize() default 10_000;
+}
@@ -0,0 +1,21 @@
+package ru.stetskevich.getorthrow.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Memoizes the result of a repository method by the call arguments for the current HTTP request,
+ * or for the current transaction outside of a request. Repeated calls with the same arguments return the same
+ * {@link ru.stetskevich.getorthrow.GetOrThrow} instance without a query. Calls outside of both scopes,
+ * e.g. in reactive pipelines, are not memoized.
+ * <p>
+ * The scope is cleared when a {@code save*}, {@code insert*}, {@code delete*}, {@code remove*} or {@code update*}
+ * method of an advised repository is called, and by {@link ru.stetskevich.getorthrow.config.GetOrThrowRequestCache#invalidate()}.
+ * Ignored for methods returning {@code Mono} or {@code CompletableFuture}.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestScopedCache {
+}
@@ -0,0 +1,260 @@
+package ru.stetskevich.getorthrow.config;
+
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.GetOrThrowAll;
+import ru.stetskevich.getorthrow.GetOrThrowExists;
+import ru.stetskevich.getorthrow.GetOrThrowScalar;
+import ru.stetskevich.getorthrow.GetOrThrowStream;
+import ru.stetskevich.getorthrow.annotation.RequestScopedCache;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+import ru.stetskevich.getorthrow.metrics.GetOrThrowMetrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Advice logic shared by {@link GetOrThrowMethodInterceptor}, {@link GetOrThrowAspect}
+ * and {@link GetOrThrowCallAspect}: binds the {@link ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage}
+ * template of the called method to the returned result.
+ */
+final class GetOrThrowAdvice {
+
+    private final GetOrThrowExceptionFactory getOrThrowExceptionFactory;
+
+    private final GetOrThrowMetrics metrics;
+
+    private final Map<Method, GetOrThrowMethodMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    private final GetOrThrowExistenceIndexes existenceIndexes;
+
+    private volatile boolean negativeCacheUsed;
+
+    GetOrThrowAdvice(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        this(getOrThrowExceptionFactory, GetOrThrowMetrics.NOOP, GetOrThrowExistenceIndexes.NONE);
+    }
+
+    GetOrThrowAdvice(GetOrThrowExceptionFactory getOrThrowExceptionFactory, GetOrThrowMetrics metrics,
+                     GetOrThrowExistenceIndexes existenceIndexes) {
+        this.getOrThrowExceptionFactory = getOrThrowExceptionFactory;
+        this.metrics = metrics;
+        this.existenceIndexes = existenceIndexes;
+    }
+
+    GetOrThrowMethodMetadata getMetadata(Method method) {
+        GetOrThrowMethodMetadata metadata = metadataCache.get(method);
+        if (metadata == null) {
+            metadata = metadataCache.computeIfAbsent(method,
+                    m -> GetOrThrowMethodMetadata.resolve(m, getOrThrowExceptionFactory, metrics, existenceIndexes));
+            if (metadata.getNegativeCache() != null) {
+                negativeCacheUsed = true;
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * @param metadata metadata of the called method
+     * @param args     call arguments
+     * @return result memoized in the current request or transaction, empty result of the method
+     * if the existence index or the negative cache knows the entity is absent, otherwise {@code null}
+     */
+    Object getKnownResult(GetOrThrowMethodMetadata metadata, Object[] args) {
+        if (metadata.isRequestScoped()) {
+            Object memoized = GetOrThrowRequestCache.get(metadata.getMethod(), args);
+            if (memoized != null) {
+                return memoized;
+            }
+        }
+        if (metadata.getExistenceIndex() != null && !metadata.getExistenceIndex().mightContain(args[0])) {
+            return remember(metadata, args, metadata.wrap(null, args));
+        }
+        GetOrThrowNegativeCache negativeCache = metadata.getNegativeCache();
+        return negativeCache != null && negativeCache.contains(args) ? remember(metadata, args, metadata.wrap(null, args)) : null;
+    }
+
+    /**
+     * @param metadata metadata of the called method
+     * @param args     call arguments
+     * @param retval   bound result of the call
+     * @return {@code retval}, memoized in the current request or transaction for {@link RequestScopedCache} methods
+     */
+    Object remember(GetOrThrowMethodMetadata metadata, Object[] args, Object retval) {
+        if (metadata.isRequestScoped() && retval != null) {
+            GetOrThrowRequestCache.put(metadata.getMethod(), args, retval);
+        }
+        return retval;
+    }
+
+    /**
+     * Adds the stored entities to the existence indexes, clears the negative caches
+     * of the methods implemented by {@code repository} and the results memoized in the current scope.
+     *
+     * @param repository repository the entities were stored by
+     * @param saved      entity or entities returned by the repository
+     */
+    void entitiesStored(Object repository, Object saved) {
+        GetOrThrowRequestCache.invalidate();
+        existenceIndexes.addEntities(saved);
+        if (!negativeCacheUsed) {
+            return;
+        }
+        for (GetOrThrowMethodMetadata metadata : metadataCache.values()) {
+            if (metadata.getNegativeCache() != null && metadata.getMethod().getDeclaringClass().isInstance(repository)) {
+                metadata.getNegativeCache().clear();
+            }
+        }
+    }
+
+    /**
+     * Clears the results memoized in the current scope after entities were deleted or updated.
+     */
+    void entitiesModified() {
+        GetOrThrowRequestCache.invalidate();
+    }
+
+    /**
+     * @param metadata metadata of the called method
+     * @param retval   value returned by the method, may be {@code null}
+     * @param args     call arguments, required only if {@link GetOrThrowMethodMetadata#needsArgs()}
+     * @return {@code retval} with the error message of the method
+     */
+    Object bind(GetOrThrowMethodMetadata metadata, Object retval, Object[] args) {
+        return bind(metadata, retval, args, metadata.getNegativeCacheGeneration());
+    }
+
+    /**
+     * @param metadata                metadata of the called method
+     * @param retval                  value returned by the method, may be {@code null}
+     * @param args                    call arguments, required only if {@link GetOrThrowMethodMetadata#needsArgs()}
+     * @param negativeCacheGeneration {@link GetOrThrowMethodMetadata#getNegativeCacheGeneration()} read before the call,
+     *                                an empty result is not cached if a save cleared the cache meanwhile
+     * @return {@code retval} with the error message of the method
+     */
+    Object bind(GetOrThrowMethodMetadata metadata, Object retval, Object[] args, long negativeCacheGeneration) {
+        switch (metadata.getResultKind()) {
+            case GET_OR_THROW:
+                return bindMessage(metadata, retval, args, negativeCacheGeneration);
+            case GET_OR_THROW_ALL:
+                return bindAll(metadata, (GetOrThrowAll<?, ?>) retval);
+            case EXISTS:
+                return bindExists(metadata, retval, args);
+            case SCALAR:
+                return bindScalar(metadata, retval, args);
+            case STREAM:
+                return bindStream(metadata, (GetOrThrowStream<?>) retval, args);
+            case MONO:
+                return ReactiveGetOrThrowSupport.orThrow(retval, metadata, args);
+            case FUTURE_GET_OR_THROW:
+                return retval == null
+                        ? null
+                        : ((CompletableFuture<?>) retval).thenApply(result -> bindMessage(metadata, result, args, negativeCacheGeneration));
+            case FUTURE:
+                return bindFuture(metadata, (CompletableFuture<?>) retval, args);
+            default:
+                return retval;
+        }
+    }
+
+    /**
+     * @param metadata                metadata of the called method
+     * @param result                  {@link GetOrThrow} returned by the method or the raw query result, may be {@code null}
+     * @param args                    call arguments, required only if {@link GetOrThrowMethodMetadata#needsArgs()}
+     * @param negativeCacheGeneration generation of the negative cache read before the call
+     * @return result with the error message of the method, bound to its exception factory
+     */
+    GetOrThrow<?> bindMessage(GetOrThrowMethodMetadata metadata, Object result, Object[] args, long negativeCacheGeneration) {
+        if (metadata.getNegativeCache() != null
+                && (result == null || result instanceof GetOrThrow && ((GetOrThrow<?>) result).isEmpty())) {
+            metadata.getNegativeCache().put(args, negativeCacheGeneration);
+            return metadata.wrap(null, args);
+        }
+        return metadata.wrap(result, args);
+    }
+
+    /**
+     * @param metadata metadata of the called method
+     * @param retval   batch result returned by the method, may be {@code null}
+     * @return {@code retval} thrown by the exception factory of the method, with its error message
+     */
+    GetOrThrowAll<?, ?> bindAll(GetOrThrowMethodMetadata metadata, GetOrThrowAll<?, ?> retval) {
+        if (retval == null) {
+            return null;
+        }
+        GetOrThrowAll<?, ?> result = retval.withExceptionFactory(metadata.getGetOrThrowExceptionFactory());
+        return metadata.keepsMessage(result.getErrorMessageTemplate()) ? result : result.changeMessage(metadata.getMessageTemplate());
+    }
+
+    /**
+     * @param metadata metadata of the called method
+     * @param retval   {@code boolean} of the query, {@link GetOrThrowExists} converted from it by Spring Data
+     *                 or returned by a default method
+     * @param args     call arguments, required only if {@link GetOrThrowMethodMetadata#needsArgs()}
+     * @return result of the existence check with the error message of the method, bound to its exception factory
+     */
+    GetOrThrowExists bindExists(GetOrThrowMethodMetadata metadata, Object retval, Object[] args) {
+        if (!(retval instanceof GetOrThrowExists)) {
+            return metadata.wrapExists(Boolean.TRUE.equals(retval), args);
+        }
+        GetOrThrowExists result = (GetOrThrowExists) retval;
+        if (metadata.keepsMessage(result.getErrorMessageTemplate())) {
+            return result.withExceptionFactory(metadata.getGetOrThrowExceptionFactory());
+        }
+        return metadata.wrapExists(result.isPresent(), args);
+    }
+
+    /**
+     * @param metadata metadata of the called method
+     * @param retval   {@link GetOrThrowScalar} converted by Spring Data or returned by a default method,
+     *                 the raw number of a store that does not convert projections, may be {@code null}
+     * @param args     call arguments, required only if {@link GetOrThrowMethodMetadata#needsArgs()}
+     * @return {@code retval} with the error message of the method, bound to its exception factory
+     */
+    GetOrThrowScalar<?> bindScalar(GetOrThrowMethodMetadata metadata, Object retval, Object[] args) {
+        return metadata.wrapScalar(retval, args);
+    }
+
+    /**
+     * @param metadata metadata of the called method
+     * @param retval   stream result returned by the method, may be {@code null}
+     * @param args     call arguments, required only if {@link GetOrThrowMethodMetadata#needsArgs()}
+     * @return {@code retval} thrown by the exception factory of the method, with its error message; the source is not read
+     */
+    GetOrThrowStream<?> bindStream(GetOrThrowMethodMetadata metadata, GetOrThrowStream<?> retval, Object[] args) {
+        GetOrThrowStream<?> result = retval == null
+                ? GetOrThrowStream.empty(metadata.getGetOrThrowExceptionFactory())
+                : retval.withExceptionFactory(metadata.getGetOrThrowExceptionFactory());
+        return metadata.keepsMessage(result.getErrorMessageTemplate()) ? result : result.changeMessage(metadata.getMessageTemplate(), args);
+    }
+
+    /**
+     * Completes the returned future on the thread completing {@code retval}; a {@code null} value becomes
+     * the exception of the factory, passed to the dependent stages as is.
+     *
+     * @param metadata metadata of the called method
+     * @param retval   future returned by the method, may be {@code null}
+     * @param args     call arguments, required only if {@link GetOrThrowMethodMetadata#needsArgs()}
+     * @return future of the non-{@code null} value
+     */
+    private CompletableFuture<Object> bindFuture(GetOrThrowMethodMetadata metadata, CompletableFuture<?> retval, Object[] args) {
+        if (retval == null) {
+            return null;
+        }
+        NotFoundMessageTemplate template = metadata.getMessageTemplate();
+        CompletableFuture<Object> bound = new CompletableFuture<>();
+        retval.whenComplete((result, failure) -> {
+            if (failure != null) {
+                bound.completeExceptionally(failure);
+            } else if (result != null) {
+                bound.complete(result);
+            } else {
+                bound.completeExceptionally(metadata.getGetOrThrowExceptionFactory()
+                        .createException(new NotFoundContext(template, args)));
+            }
+        });
+        return bound;
+    }
+}
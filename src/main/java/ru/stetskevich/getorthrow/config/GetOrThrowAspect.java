@@ -1,46 +1,97 @@
 package ru.stetskevich.getorthrow.config;
 
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.ObjectProvider;
 import ru.stetskevich.getorthrow.GetOrThrow;
-import ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage;
 import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.index.ExistenceIndex;
+import ru.stetskevich.getorthrow.metrics.GetOrThrowMetrics;
 
-import java.lang.reflect.Method;
-
-@Component
+/**
+ * Spring AOP aspect for {@code get-or-throw.advice-mode=proxy}. It is matched against every bean,
+ * so it also works for {@link GetOrThrow} methods outside of Spring Data repositories.
+ */
 @Aspect
 public class GetOrThrowAspect {
 
-    @Autowired
-    private GetOrThrowExceptionFactory getOrThrowExceptionFactory;
+    private final GetOrThrowAdvice advice;
+
+    public GetOrThrowAspect(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        this(getOrThrowExceptionFactory, GetOrThrowMetrics.NOOP);
+    }
+
+    public GetOrThrowAspect(GetOrThrowExceptionFactory getOrThrowExceptionFactory, GetOrThrowMetrics metrics) {
+        this.advice = new GetOrThrowAdvice(getOrThrowExceptionFactory, metrics, GetOrThrowExistenceIndexes.NONE);
+    }
+
+    public GetOrThrowAspect(GetOrThrowExceptionFactory getOrThrowExceptionFactory, GetOrThrowMetrics metrics,
+                            ObjectProvider<ExistenceIndex> existenceIndexes) {
+        this.advice = new GetOrThrowAdvice(getOrThrowExceptionFactory, metrics,
+                new GetOrThrowExistenceIndexes(existenceIndexes::orderedStream));
+    }
 
     @Pointcut("execution(ru.stetskevich.getorthrow.GetOrThrow<*> *.*(..))")
     public void returnGetOrThrow() {
     }
 
-    @Around("returnGetOrThrow()")
+    @Pointcut("execution(ru.stetskevich.getorthrow.GetOrThrowAll<*, *> *.*(..))")
+    public void returnGetOrThrowAll() {
+    }
+
+    @Pointcut("execution(ru.stetskevich.getorthrow.GetOrThrowExists *.*(..))")
+    public void returnGetOrThrowExists() {
+    }
+
+    @Pointcut("execution(ru.stetskevich.getorthrow.GetOrThrowStream<*> *.*(..))")
+    public void returnGetOrThrowStream() {
+    }
+
+    @Pointcut("execution(ru.stetskevich.getorthrow.GetOrThrowLong *.*(..))"
+            + " || execution(ru.stetskevich.getorthrow.GetOrThrowInt *.*(..))"
+            + " || execution(ru.stetskevich.getorthrow.GetOrThrowDouble *.*(..))")
+    public void returnGetOrThrowScalar() {
+    }
+
+    @Pointcut("execution(java.util.concurrent.CompletableFuture *.*(..))"
+            + " && @annotation(ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage)")
+    public void returnFuture() {
+    }
+
+    @Around("returnGetOrThrow() || returnGetOrThrowAll() || returnGetOrThrowExists() || returnGetOrThrowScalar()"
+            + " || returnGetOrThrowStream() || returnFuture()")
     public Object measureMethodExecutionTime(ProceedingJoinPoint pjp) throws Throwable {
-        MethodSignature signature = (MethodSignature) pjp.getSignature();
-        Method method = pjp.getTarget()
-                .getClass()
-                .getMethod(signature.getMethod().getName(),
-                        signature.getMethod().getParameterTypes());
-        GetOrThrow retval = (GetOrThrow) pjp.proceed();
-        retval = retval == null ? GetOrThrow.empty() : retval;
-        NotFoundExceptionMessage annotation = signature.getMethod().getAnnotation(NotFoundExceptionMessage.class);
-        if (annotation != null) {
-            String errorMessage = annotation.value();
-            for (Object arg : pjp.getArgs()) {
-                errorMessage = errorMessage.replaceFirst("\\{\\}", String.valueOf(arg));
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(((MethodSignature) pjp.getSignature()).getMethod());
+        long start = metadata.getMetrics().start();
+        Object[] args = metadata.needsArgs() ? pjp.getArgs() : null;
+        Object retval = null;
+        try {
+            retval = advice.getKnownResult(metadata, args);
+            if (retval == null) {
+                long negativeCacheGeneration = metadata.getNegativeCacheGeneration();
+                retval = advice.remember(metadata, args, advice.bind(metadata, pjp.proceed(), args, negativeCacheGeneration));
             }
-            return retval.changeMessage(errorMessage);
+            return retval;
+        } finally {
+            metadata.getMetrics().record(start, retval);
         }
-        return retval;
     }
-}
\ No newline at end of file
+
+    @AfterReturning(pointcut = "execution(* org.springframework.data.repository.Repository+.save*(..))"
+            + " || execution(* org.springframework.data.repository.Repository+.insert*(..))", returning = "saved")
+    public void entitiesStored(JoinPoint jp, Object saved) {
+        advice.entitiesStored(jp.getThis(), saved);
+    }
+
+    @AfterReturning("execution(* org.springframework.data.repository.Repository+.delete*(..))"
+            + " || execution(* org.springframework.data.repository.Repository+.remove*(..))"
+            + " || execution(* org.springframework.data.repository.Repository+.update*(..))")
+    public void entitiesModified() {
+        advice.entitiesModified();
+    }
+}
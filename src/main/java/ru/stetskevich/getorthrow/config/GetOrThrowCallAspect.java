@@ -0,0 +1,76 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+/**
+ * AspectJ aspect for {@code get-or-throw.advice-mode=aspectj}. Repository query methods have no body
+ * to weave, so the advice is woven into the call sites with compile-time (ajc) or load-time weaving
+ * and no proxies are created. It is not a Spring bean: {@code call} pointcuts are not supported by Spring AOP.
+ * Only calls of Spring Data repository methods are advised, so chains like {@code GetOrThrow.of(...).map(...)}
+ * in woven code are left as is, as well as calls made before the application context is started.
+ */
+@Aspect
+public class GetOrThrowCallAspect {
+
+    private static volatile GetOrThrowAdvice advice;
+
+    static void configure(GetOrThrowAdvice advice) {
+        GetOrThrowCallAspect.advice = advice;
+    }
+
+    @Around("(call(ru.stetskevich.getorthrow.GetOrThrow<*> org.springframework.data.repository.Repository+.*(..))"
+            + " || call(ru.stetskevich.getorthrow.GetOrThrowAll<*, *> org.springframework.data.repository.Repository+.*(..))"
+            + " || call(ru.stetskevich.getorthrow.GetOrThrowExists org.springframework.data.repository.Repository+.*(..))"
+            + " || call(ru.stetskevich.getorthrow.GetOrThrowStream<*> org.springframework.data.repository.Repository+.*(..))"
+            + " || call(ru.stetskevich.getorthrow.GetOrThrowLong org.springframework.data.repository.Repository+.*(..))"
+            + " || call(ru.stetskevich.getorthrow.GetOrThrowInt org.springframework.data.repository.Repository+.*(..))"
+            + " || call(ru.stetskevich.getorthrow.GetOrThrowDouble org.springframework.data.repository.Repository+.*(..))"
+            + " || call(@ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage java.util.concurrent.CompletableFuture org.springframework.data.repository.Repository+.*(..)))"
+            + " && !within(ru.stetskevich.getorthrow..*)")
+    public Object callGetOrThrow(ProceedingJoinPoint pjp) throws Throwable {
+        GetOrThrowAdvice advice = GetOrThrowCallAspect.advice;
+        if (advice == null) {
+            return pjp.proceed();
+        }
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(((MethodSignature) pjp.getSignature()).getMethod());
+        long start = metadata.getMetrics().start();
+        Object[] args = metadata.needsArgs() ? pjp.getArgs() : null;
+        Object retval = null;
+        try {
+            retval = advice.getKnownResult(metadata, args);
+            if (retval == null) {
+                long negativeCacheGeneration = metadata.getNegativeCacheGeneration();
+                retval = advice.remember(metadata, args, advice.bind(metadata, pjp.proceed(), args, negativeCacheGeneration));
+            }
+            return retval;
+        } finally {
+            metadata.getMetrics().record(start, retval);
+        }
+    }
+
+    @AfterReturning(pointcut = "(call(* org.springframework.data.repository.Repository+.save*(..))"
+            + " || call(* org.springframework.data.repository.Repository+.insert*(..)))"
+            + " && !within(ru.stetskevich.getorthrow..*)", returning = "saved")
+    public void entitiesStored(JoinPoint jp, Object saved) {
+        GetOrThrowAdvice advice = GetOrThrowCallAspect.advice;
+        if (advice != null) {
+            advice.entitiesStored(jp.getTarget(), saved);
+        }
+    }
+
+    @AfterReturning("(call(* org.springframework.data.repository.Repository+.delete*(..))"
+            + " || call(* org.springframework.data.repository.Repository+.remove*(..))"
+            + " || call(* org.springframework.data.repository.Repository+.update*(..)))"
+            + " && !within(ru.stetskevich.getorthrow..*)")
+    public void entitiesModified() {
+        GetOrThrowAdvice advice = GetOrThrowCallAspect.advice;
+        if (advice != null) {
+            advice.entitiesModified();
+        }
+    }
+}
@@ -1,106 +1,307 @@
 package ru.stetskevich.getorthrow.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.autoconfigure.AutoConfigureOrder;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
 import org.springframework.context.annotation.*;
 import org.springframework.core.convert.converter.Converter;
-import org.springframework.core.convert.support.DefaultConversionService;
-import org.springframework.core.convert.support.GenericConversionService;
 import org.springframework.data.convert.ReadingConverter;
-import org.springframework.data.jpa.repository.query.JpaQueryExecution;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
 import org.springframework.data.repository.util.QueryExecutionConverters;
 import org.springframework.data.util.NullableWrapper;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+import ru.stetskevich.getorthrow.factory.DefaultGetOrThrowExceptionFactory;
 import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.StacklessGetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.index.ExistenceIndex;
+import ru.stetskevich.getorthrow.metrics.GetOrThrowMetrics;
+import ru.stetskevich.getorthrow.metrics.MicrometerGetOrThrowMetrics;
+import ru.stetskevich.getorthrow.web.GetOrThrowProblemDetailHandler;
 
 import javax.annotation.PostConstruct;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
-@Configuration
-@EnableAspectJAutoProxy
-@ComponentScan(basePackages = {GetOrThrowConfig.BASE_PACKAGE})
-@Import({GetOrThrowConfig.MongoConfig.class, GetOrThrowConfig.JpaConfig.class})
+@AutoConfiguration(afterName = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@Import({GetOrThrowConfig.ProblemDetailConfig.class, GetOrThrowConfig.MetricsConfig.class, GetOrThrowConfig.SpringDataConfig.class,
+        GetOrThrowConfig.RepositoryConversionConfig.class,
+        GetOrThrowConfig.MongoConfig.class,
+        GetOrThrowConfig.RepositoryAdviceConfig.class, GetOrThrowConfig.ProxyAdviceConfig.class,
+        GetOrThrowConfig.AspectJAdviceConfig.class, GetOrThrowConfig.MonoMethodCheckConfig.class})
 public class GetOrThrowConfig {
 
     public static final String BASE_PACKAGE = "ru.stetskevich.getorthrow";
+    public static final String ADVICE_MODE_PROPERTY = "get-or-throw.advice-mode";
+    public static final String STACKLESS_PROPERTY = "get-or-throw.exception.stackless";
+    public static final String METRICS_PROPERTY = "get-or-throw.metrics.enabled";
+    public static final String PROBLEM_DETAIL_PROPERTY = "get-or-throw.web.problem-detail.enabled";
     private static final Logger log = LoggerFactory.getLogger(GetOrThrowConfig.class);
 
+    @Bean
+    @ConditionalOnMissingBean(GetOrThrowExceptionFactory.class)
+    @Conditional(DefaultExceptionFactoryCondition.class)
+    public DefaultGetOrThrowExceptionFactory defaultGetOrThrowExceptionFactory() {
+        return new DefaultGetOrThrowExceptionFactory();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(GetOrThrowExceptionFactory.class)
+    @Conditional(StacklessExceptionFactoryCondition.class)
+    public StacklessGetOrThrowExceptionFactory stacklessGetOrThrowExceptionFactory() {
+        return new StacklessGetOrThrowExceptionFactory();
+    }
 
+    /**
+     * 404 responses for {@link GetOrThrowNotFoundException}. The handler needs the exceptions of the stackless factory,
+     * so it is used by default when the handler is enabled.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(RestControllerAdvice.class)
+    @ConditionalOnWebApplication
+    @ConditionalOnProperty(name = PROBLEM_DETAIL_PROPERTY, havingValue = "true")
+    public static class ProblemDetailConfig {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public GetOrThrowProblemDetailHandler getOrThrowProblemDetailHandler() {
+            return new GetOrThrowProblemDetailHandler();
+        }
+    }
+
+    /**
+     * Micrometer metrics of advised methods, enabled when the application has a {@link MeterRegistry}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnProperty(name = METRICS_PROPERTY, havingValue = "true", matchIfMissing = true)
+    public static class MetricsConfig {
+
+        @Bean
+        @ConditionalOnMissingBean(GetOrThrowMetrics.class)
+        public MicrometerGetOrThrowMetrics getOrThrowMetrics(MeterRegistry meterRegistry) {
+            return new MicrometerGetOrThrowMetrics(meterRegistry);
+        }
+    }
+
+    /**
+     * Registers {@link GetOrThrow} as a query method wrapper type before any repository is created.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(QueryExecutionConverters.class)
+    public static class SpringDataConfig {
+
+        @Bean
+        public static BeanFactoryPostProcessor getOrThrowWrapperTypeRegistrar() {
+            return beanFactory -> GetOrThrowSpringDataRegistrar.registerWrapperType(GetOrThrow.class);
+        }
+    }
+
+    /**
+     * Converts {@code NullableWrapper} query results of any Spring Data store to {@link GetOrThrow}.
+     */
     @Configuration
-    @ConditionalOnClass(MongoCustomConversions.class)
-    public static class MongoConfig{
+    @ConditionalOnClass(RepositoryFactorySupport.class)
+    @Conditional(ProxiedResultConversionCondition.class)
+    public static class RepositoryConversionConfig {
 
         @Autowired
         private GetOrThrowExceptionFactory getOrThrowExceptionFactory;
 
+        @Autowired
+        private ObjectProvider<GetOrThrowMetrics> metrics;
+
         @PostConstruct
         public void init() {
-            try {
-                Field WRAPPER_TYPES = QueryExecutionConverters.class.getDeclaredField("WRAPPER_TYPES");
-                WRAPPER_TYPES.setAccessible(true);
-                ((Set<QueryExecutionConverters.WrapperType>) WRAPPER_TYPES.get(null)).add(QueryExecutionConverters.WrapperType.singleValue(GetOrThrow.class));
-                Field conversion_service = RepositoryFactorySupport.class.getDeclaredField("CONVERSION_SERVICE");
-                conversion_service.setAccessible(true);
-                ((GenericConversionService) conversion_service.get(null)).addConverter(new GetOrThrowConverter(getOrThrowExceptionFactory));
-                log.info("GetOrThrow config for MongoDB was initilized");
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+            if (GetOrThrowSpringDataRegistrar.registerRepositoryConverter(new GetOrThrowConverter(instrument(getOrThrowExceptionFactory, metrics)))) {
+                log.info("GetOrThrow config for Spring Data repositories was initilized");
             }
         }
+    }
+
+    @Configuration
+    @ConditionalOnClass(MongoCustomConversions.class)
+    @Conditional(ProxiedResultConversionCondition.class)
+    public static class MongoConfig{
+
+        @Autowired
+        private GetOrThrowExceptionFactory getOrThrowExceptionFactory;
+
+        @Autowired
+        private ObjectProvider<GetOrThrowMetrics> metrics;
 
         @Bean
+        @ConditionalOnMissingBean
         public MongoCustomConversions customConversions() {
             List<Converter<?, ?>> converterList = new ArrayList<Converter<?, ?>>();
-            converterList.add(new GetOrThrowConverter(getOrThrowExceptionFactory));
+            converterList.add(new GetOrThrowConverter(instrument(getOrThrowExceptionFactory, metrics)));
             return new MongoCustomConversions(converterList);
         }
     }
 
+    /**
+     * Default mode: the advice is added only to Spring Data repository proxies. The interceptor
+     * runs inside the repository proxy and wraps query results itself, so no converters are registered.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(RepositoryFactoryBeanSupport.class)
+    @ConditionalOnProperty(name = ADVICE_MODE_PROPERTY, havingValue = "repository", matchIfMissing = true)
+    public static class RepositoryAdviceConfig {
+
+        @Bean
+        public static GetOrThrowRepositoryPostProcessor getOrThrowRepositoryPostProcessor(
+                ObjectProvider<GetOrThrowExceptionFactory> getOrThrowExceptionFactory,
+                ObjectProvider<GetOrThrowMetrics> metrics,
+                ObjectProvider<ExistenceIndex> existenceIndexes) {
+            return new GetOrThrowRepositoryPostProcessor(getOrThrowExceptionFactory, metrics, existenceIndexes);
+        }
+    }
+
+    /**
+     * {@link GetOrThrowAspect} applied by Spring AOP to every bean.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @EnableAspectJAutoProxy
+    @ConditionalOnProperty(name = ADVICE_MODE_PROPERTY, havingValue = "proxy")
+    public static class ProxyAdviceConfig {
+
+        @Bean
+        public GetOrThrowAspect getOrThrowAspect(GetOrThrowExceptionFactory getOrThrowExceptionFactory,
+                                                 ObjectProvider<GetOrThrowMetrics> metrics,
+                                                 ObjectProvider<ExistenceIndex> existenceIndexes) {
+            return new GetOrThrowAspect(getOrThrowExceptionFactory, metrics.getIfAvailable(() -> GetOrThrowMetrics.NOOP),
+                    existenceIndexes);
+        }
+    }
+
+    /**
+     * {@link GetOrThrowCallAspect} woven by AspectJ at compile or load time, no proxies are created.
+     */
     @Configuration
-    @ConditionalOnClass(JpaQueryExecution.class)
-    public static class JpaConfig{
+    @ConditionalOnProperty(name = ADVICE_MODE_PROPERTY, havingValue = "aspectj")
+    public static class AspectJAdviceConfig {
+
         @Autowired
         private GetOrThrowExceptionFactory getOrThrowExceptionFactory;
 
+        @Autowired
+        private ObjectProvider<GetOrThrowMetrics> metrics;
+
+        @Autowired
+        private ObjectProvider<ExistenceIndex> existenceIndexes;
+
         @PostConstruct
         public void init() {
-            try {
-                Field conversion_service = JpaQueryExecution.class.getDeclaredField("CONVERSION_SERVICE");
-                conversion_service.setAccessible(true);
-                ((DefaultConversionService) conversion_service.get(null)).addConverter(new GetOrThrowGenericConverter(getOrThrowExceptionFactory));
-                log.info("GetOrThrow config for Jpa was initilized");
-            }catch (Exception e){
-                throw new RuntimeException(e);
-            }
+            GetOrThrowCallAspect.configure(new GetOrThrowAdvice(getOrThrowExceptionFactory,
+                    metrics.getIfAvailable(() -> GetOrThrowMetrics.NOOP),
+                    new GetOrThrowExistenceIndexes(existenceIndexes::orderedStream)));
+            log.info("GetOrThrow AspectJ advice was initialized");
+        }
+    }
+
+    /**
+     * Outside of the repository mode {@code Mono} methods are not advised, so repositories annotating them fail to start.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(RepositoryFactoryBeanSupport.class)
+    @Conditional(ProxiedResultConversionCondition.class)
+    public static class MonoMethodCheckConfig {
+
+        @Bean
+        static GetOrThrowMonoMethodCheck getOrThrowMonoMethodCheck() {
+            return new GetOrThrowMonoMethodCheck();
+        }
+    }
+
+    private static GetOrThrowExceptionFactory instrument(GetOrThrowExceptionFactory getOrThrowExceptionFactory,
+                                                        ObjectProvider<GetOrThrowMetrics> metrics) {
+        return metrics.getIfAvailable(() -> GetOrThrowMetrics.NOOP).instrument(getOrThrowExceptionFactory);
+    }
+
+    static class StacklessExceptionFactoryCondition extends AnyNestedCondition {
+
+        StacklessExceptionFactoryCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(name = STACKLESS_PROPERTY, havingValue = "true")
+        static class Stackless {
         }
 
+        @ConditionalOnProperty(name = PROBLEM_DETAIL_PROPERTY, havingValue = "true")
+        static class ProblemDetail {
+        }
+    }
+
+    static class DefaultExceptionFactoryCondition extends NoneNestedConditions {
+
+        DefaultExceptionFactoryCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(name = STACKLESS_PROPERTY, havingValue = "true")
+        static class Stackless {
+        }
+
+        @ConditionalOnProperty(name = PROBLEM_DETAIL_PROPERTY, havingValue = "true")
+        static class ProblemDetail {
+        }
+    }
+
+    /**
+     * Outside of the repository mode the advice sees the result only after it leaves the repository
+     * proxy, so Spring Data itself has to convert query results to {@link GetOrThrow}.
+     */
+    static class ProxiedResultConversionCondition extends AnyNestedCondition {
+
+        ProxiedResultConversionCondition() {
+            super(ConfigurationPhase.PARSE_CONFIGURATION);
+        }
+
+        @ConditionalOnProperty(name = ADVICE_MODE_PROPERTY, havingValue = "proxy")
+        static class ProxyMode {
+        }
+
+        @ConditionalOnProperty(name = ADVICE_MODE_PROPERTY, havingValue = "aspectj")
+        static class AspectJMode {
+        }
     }
 
+    /**
+     * Converts the {@code NullableWrapper} Spring Data passes for wrapper return types. It is registered
+     * for this exact source type only, so conversions of other types to {@link GetOrThrow} do not see it.
+     */
     @ReadingConverter
-    static class GetOrThrowConverter implements Converter<Object, GetOrThrow> {
+    static class GetOrThrowConverter implements Converter<NullableWrapper, GetOrThrow> {
 
         private final GetOrThrowExceptionFactory getOrThrowExceptionFactory;
 
+        private final GetOrThrow<?> empty;
+
         public GetOrThrowConverter(GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
             this.getOrThrowExceptionFactory = getOrThrowExceptionFactory;
+            this.empty = GetOrThrow.empty(getOrThrowExceptionFactory);
         }
 
         @Override
-        public GetOrThrow convert(Object source) {
-            NullableWrapper wrapper = (NullableWrapper) source;
-            Object value = wrapper.getValue();
-
-            return GetOrThrow.of(value, getOrThrowExceptionFactory);
+        public GetOrThrow convert(NullableWrapper source) {
+            Object value = source.getValue();
+            return value == null ? empty : GetOrThrow.of(value, getOrThrowExceptionFactory);
         }
-
     }
-}
\ No newline at end of file
+}
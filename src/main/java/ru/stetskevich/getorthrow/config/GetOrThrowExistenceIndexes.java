@@ -0,0 +1,73 @@
+package ru.stetskevich.getorthrow.config;
+
+import ru.stetskevich.getorthrow.index.ExistenceIndex;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link ExistenceIndex} beans of the application, collected on the first use
+ * because repositories are advised before the indexes are created.
+ */
+final class GetOrThrowExistenceIndexes {
+
+    static final GetOrThrowExistenceIndexes NONE = new GetOrThrowExistenceIndexes(Stream::empty);
+
+    private final Supplier<Stream<ExistenceIndex>> existenceIndexes;
+
+    private volatile List<ExistenceIndex> resolved;
+
+    GetOrThrowExistenceIndexes(Supplier<Stream<ExistenceIndex>> existenceIndexes) {
+        this.existenceIndexes = existenceIndexes;
+    }
+
+    /**
+     * @param entityType entity type
+     * @return index of the entity type
+     * @throws IllegalStateException if there is no index of the entity type
+     */
+    ExistenceIndex get(Class<?> entityType) {
+        for (ExistenceIndex existenceIndex : resolve()) {
+            if (existenceIndex.getEntityType() == entityType) {
+                return existenceIndex;
+            }
+        }
+        throw new IllegalStateException("No ExistenceIndex bean for " + entityType.getName());
+    }
+
+    /**
+     * Adds the saved entities to the indexes of their types.
+     *
+     * @param saved entity or entities returned by a repository {@code save*} method
+     */
+    @SuppressWarnings("unchecked")
+    void addEntities(Object saved) {
+        List<ExistenceIndex> indexes = resolve();
+        if (indexes.isEmpty() || saved == null) {
+            return;
+        }
+        if (saved instanceof Iterable) {
+            for (Object entity : (Iterable<?>) saved) {
+                addEntities(entity);
+            }
+            return;
+        }
+        for (ExistenceIndex existenceIndex : indexes) {
+            if (existenceIndex.getEntityType().isInstance(saved)) {
+                existenceIndex.addEntity(saved);
+            }
+        }
+    }
+
+    private List<ExistenceIndex> resolve() {
+        List<ExistenceIndex> resolved = this.resolved;
+        if (resolved == null) {
+            resolved = Collections.unmodifiableList(existenceIndexes.get().collect(Collectors.toList()));
+            this.resolved = resolved;
+        }
+        return resolved;
+    }
+}
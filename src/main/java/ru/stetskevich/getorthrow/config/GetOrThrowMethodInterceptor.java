@@ -0,0 +1,63 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import ru.stetskevich.getorthrow.GetOrThrow;
+
+import java.lang.reflect.Method;
+
+/**
+ * Interceptor added to Spring Data repository proxies for {@code get-or-throw.advice-mode=repository}.
+ * It runs inside the repository proxy around the query execution, so it gets the raw query result
+ * (the entity or {@code null}) and wraps it into {@link GetOrThrow} itself. It runs outside of the transaction
+ * the repository opens per call, so only a transaction of the caller is a scope of memoized results.
+ */
+public class GetOrThrowMethodInterceptor implements MethodInterceptor {
+
+    private final GetOrThrowAdvice advice;
+
+    GetOrThrowMethodInterceptor(GetOrThrowAdvice advice) {
+        this.advice = advice;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(invocation.getMethod());
+        if (metadata.getResultKind() == GetOrThrowMethodMetadata.ResultKind.NONE) {
+            Object retval = invocation.proceed();
+            if (metadata.storesEntities() && invocation instanceof ProxyMethodInvocation) {
+                advice.entitiesStored(((ProxyMethodInvocation) invocation).getProxy(), retval);
+            } else if (metadata.modifiesEntities()) {
+                advice.entitiesModified();
+            }
+            return retval;
+        }
+        long start = metadata.getMetrics().start();
+        Object[] args = invocation.getArguments();
+        Object retval = null;
+        try {
+            retval = advice.getKnownResult(metadata, args);
+            if (retval == null) {
+                long negativeCacheGeneration = metadata.getNegativeCacheGeneration();
+                retval = advice.remember(metadata, args, advice.bind(metadata, invocation.proceed(), args, negativeCacheGeneration));
+            }
+            return retval;
+        } finally {
+            metadata.getMetrics().record(start, retval);
+        }
+    }
+
+    /**
+     * @param repositoryInterface repository interface
+     * @return {@code true} if the repository has methods handled by the interceptor
+     */
+    static boolean supports(Class<?> repositoryInterface) {
+        for (Method method : repositoryInterface.getMethods()) {
+            if (GetOrThrowMethodMetadata.resultKind(method) != GetOrThrowMethodMetadata.ResultKind.NONE) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
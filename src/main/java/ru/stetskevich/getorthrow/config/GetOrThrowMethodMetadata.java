@@ -0,0 +1,385 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.springframework.core.ResolvableType;
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.GetOrThrowAll;
+import ru.stetskevich.getorthrow.GetOrThrowDouble;
+import ru.stetskevich.getorthrow.GetOrThrowExists;
+import ru.stetskevich.getorthrow.GetOrThrowInt;
+import ru.stetskevich.getorthrow.GetOrThrowLong;
+import ru.stetskevich.getorthrow.GetOrThrowScalar;
+import ru.stetskevich.getorthrow.GetOrThrowStream;
+import ru.stetskevich.getorthrow.annotation.ExistenceIndexed;
+import ru.stetskevich.getorthrow.annotation.NotFoundCache;
+import ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage;
+import ru.stetskevich.getorthrow.annotation.RequestScopedCache;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.index.ExistenceIndex;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+import ru.stetskevich.getorthrow.metrics.GetOrThrowMethodMetrics;
+import ru.stetskevich.getorthrow.metrics.GetOrThrowMetrics;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Everything {@link GetOrThrowAdvice} needs to know about an advised method,
+ * resolved once on the first call and reused afterwards.
+ */
+final class GetOrThrowMethodMetadata {
+
+    /**
+     * How the advice handles the result of the method.
+     */
+    enum ResultKind {
+        /**
+         * The method returns {@link GetOrThrow}.
+         */
+        GET_OR_THROW,
+        /**
+         * The method returns {@link GetOrThrowAll}; the template is rendered with the missing ids.
+         */
+        GET_OR_THROW_ALL,
+        /**
+         * The method returns {@link GetOrThrowExists}; the repository result is {@code boolean}.
+         */
+        EXISTS,
+        /**
+         * The method returns {@link GetOrThrowLong}, {@link GetOrThrowInt} or {@link GetOrThrowDouble}.
+         */
+        SCALAR,
+        /**
+         * The method returns {@link GetOrThrowStream}, consumed after the call.
+         */
+        STREAM,
+        /**
+         * The method returns {@code reactor.core.publisher.Mono} and is annotated with {@link NotFoundExceptionMessage}:
+         * an empty {@code Mono} becomes the not found error.
+         */
+        MONO,
+        /**
+         * The method returns {@code CompletableFuture<GetOrThrow<T>>}: the value is bound to the template
+         * when the future completes.
+         */
+        FUTURE_GET_OR_THROW,
+        /**
+         * The method returns {@code CompletableFuture} of another type and is annotated with {@link NotFoundExceptionMessage}:
+         * a future completed with {@code null} becomes the not found error.
+         */
+        FUTURE,
+        /**
+         * The method is not advised.
+         */
+        NONE
+    }
+
+    private final Method method;
+
+    private final ResultKind resultKind;
+
+    private final NotFoundMessageTemplate errorMessageTemplate;
+
+    private final NotFoundMessageTemplate messageTemplate;
+
+    private final GetOrThrowExceptionFactory getOrThrowExceptionFactory;
+
+    private final GetOrThrow<?> empty;
+
+    private final GetOrThrowExists present;
+
+    private final GetOrThrowExists absent;
+
+    private final GetOrThrowScalar<?> emptyScalar;
+
+    private final GetOrThrowMethodMetrics metrics;
+
+    private final GetOrThrowNegativeCache negativeCache;
+
+    private final ExistenceIndex existenceIndex;
+
+    private final boolean requestScoped;
+
+    private final boolean storesEntities;
+
+    private final boolean modifiesEntities;
+
+    private GetOrThrowMethodMetadata(Method method, NotFoundMessageTemplate errorMessageTemplate,
+                                     GetOrThrowExceptionFactory getOrThrowExceptionFactory, GetOrThrowMetrics metrics,
+                                     GetOrThrowExistenceIndexes existenceIndexes) {
+        this.method = method;
+        this.resultKind = resultKind(method);
+        this.errorMessageTemplate = errorMessageTemplate;
+        this.messageTemplate = errorMessageTemplate != null ? errorMessageTemplate
+                : resultKind == ResultKind.GET_OR_THROW_ALL ? GetOrThrowAll.DEFAULT_ERROR_MESSAGE_TEMPLATE.forMethod(method)
+                : NotFoundMessageTemplate.DEFAULT.forMethod(method);
+        this.getOrThrowExceptionFactory = getOrThrowExceptionFactory;
+        this.empty = GetOrThrow.empty(getOrThrowExceptionFactory).changeMessage(messageTemplate);
+        this.present = GetOrThrowExists.of(true, getOrThrowExceptionFactory).changeMessage(messageTemplate);
+        this.absent = GetOrThrowExists.of(false, getOrThrowExceptionFactory).changeMessage(messageTemplate);
+        this.emptyScalar = resultKind == ResultKind.SCALAR
+                ? emptyScalar(method.getReturnType(), messageTemplate, getOrThrowExceptionFactory)
+                : null;
+        this.metrics = hasCompleteResult()
+                ? metrics.forMethod(method)
+                : GetOrThrowMethodMetrics.NOOP;
+        NotFoundCache notFoundCache = method.getAnnotation(NotFoundCache.class);
+        this.negativeCache = notFoundCache != null && resultKind == ResultKind.GET_OR_THROW
+                ? new GetOrThrowNegativeCache(notFoundCache)
+                : null;
+        this.existenceIndex = method.isAnnotationPresent(ExistenceIndexed.class)
+                ? existenceIndex(method, existenceIndexes)
+                : null;
+        this.requestScoped = method.isAnnotationPresent(RequestScopedCache.class) && hasCompleteResult();
+        String name = method.getName();
+        this.storesEntities = name.startsWith("save") || name.startsWith("insert");
+        this.modifiesEntities = name.startsWith("delete") || name.startsWith("remove") || name.startsWith("update");
+    }
+
+    private static GetOrThrowScalar<?> emptyScalar(Class<?> returnType, NotFoundMessageTemplate messageTemplate,
+                                                   GetOrThrowExceptionFactory getOrThrowExceptionFactory) {
+        GetOrThrowScalar<?> empty = returnType == GetOrThrowLong.class ? GetOrThrowLong.empty(getOrThrowExceptionFactory)
+                : returnType == GetOrThrowInt.class ? GetOrThrowInt.empty(getOrThrowExceptionFactory)
+                : GetOrThrowDouble.empty(getOrThrowExceptionFactory);
+        return empty.changeMessage(messageTemplate);
+    }
+
+    private ExistenceIndex existenceIndex(Method method, GetOrThrowExistenceIndexes existenceIndexes) {
+        Class<?> entityType = ResolvableType.forMethodReturnType(method).getGeneric(0).resolve();
+        if (resultKind != ResultKind.GET_OR_THROW || method.getParameterCount() == 0 || entityType == null) {
+            throw new IllegalStateException("@ExistenceIndexed method " + method
+                    + " must return GetOrThrow of an entity and take the id as the first argument");
+        }
+        return existenceIndexes.get(entityType);
+    }
+
+    static GetOrThrowMethodMetadata resolve(Method method, GetOrThrowExceptionFactory getOrThrowExceptionFactory,
+                                            GetOrThrowMetrics metrics, GetOrThrowExistenceIndexes existenceIndexes) {
+        NotFoundExceptionMessage annotation = method.getAnnotation(NotFoundExceptionMessage.class);
+        NotFoundMessageTemplate errorMessageTemplate = annotation == null ? null : NotFoundMessageTemplate.compile(annotation.value(), method);
+        return new GetOrThrowMethodMetadata(method, errorMessageTemplate, metrics.instrument(getOrThrowExceptionFactory), metrics,
+                existenceIndexes);
+    }
+
+    static ResultKind resultKind(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == GetOrThrow.class) {
+            return ResultKind.GET_OR_THROW;
+        }
+        if (returnType == GetOrThrowAll.class) {
+            return ResultKind.GET_OR_THROW_ALL;
+        }
+        if (returnType == GetOrThrowExists.class) {
+            return ResultKind.EXISTS;
+        }
+        if (returnType == GetOrThrowLong.class || returnType == GetOrThrowInt.class || returnType == GetOrThrowDouble.class) {
+            return ResultKind.SCALAR;
+        }
+        if (returnType == GetOrThrowStream.class) {
+            return ResultKind.STREAM;
+        }
+        if (ReactiveGetOrThrowSupport.isMono(returnType) && method.isAnnotationPresent(NotFoundExceptionMessage.class)) {
+            return ResultKind.MONO;
+        }
+        if (returnType == CompletableFuture.class) {
+            if (ResolvableType.forMethodReturnType(method).getGeneric(0).resolve() == GetOrThrow.class) {
+                return ResultKind.FUTURE_GET_OR_THROW;
+            }
+            if (method.isAnnotationPresent(NotFoundExceptionMessage.class)) {
+                return ResultKind.FUTURE;
+            }
+        }
+        return ResultKind.NONE;
+    }
+
+    /**
+     * @return {@code true} if the method is advised and returns a complete result rather than a {@code Mono},
+     * a future or a stream, so the result can be inspected and reused
+     */
+    private boolean hasCompleteResult() {
+        return resultKind != ResultKind.MONO && resultKind != ResultKind.FUTURE_GET_OR_THROW
+                && resultKind != ResultKind.FUTURE && resultKind != ResultKind.STREAM && resultKind != ResultKind.NONE;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    ResultKind getResultKind() {
+        return resultKind;
+    }
+
+    /**
+     * @return {@code true} if the method is annotated with {@link NotFoundExceptionMessage}
+     */
+    boolean hasErrorMessage() {
+        return errorMessageTemplate != null;
+    }
+
+    /**
+     * @return {@code true} if the call arguments are bound to the result for the exception factory,
+     * or used as the key of the request scoped cache; {@link GetOrThrowAll} reports the missing ids instead
+     */
+    boolean needsArgs() {
+        return resultKind != ResultKind.NONE && (resultKind != ResultKind.GET_OR_THROW_ALL || requestScoped);
+    }
+
+    NotFoundMessageTemplate getErrorMessageTemplate() {
+        return errorMessageTemplate;
+    }
+
+    /**
+     * @return template of {@link NotFoundExceptionMessage}, otherwise the default message, bound to the method
+     * either way so the exception factory sees it
+     */
+    NotFoundMessageTemplate getMessageTemplate() {
+        return messageTemplate;
+    }
+
+    /**
+     * @param resultTemplate message of the result returned by the method
+     * @return {@code true} if the method is not annotated and set a message of its own, which is kept as is
+     */
+    boolean keepsMessage(NotFoundMessageTemplate resultTemplate) {
+        return errorMessageTemplate == null && resultTemplate != NotFoundMessageTemplate.DEFAULT
+                && resultTemplate != GetOrThrowAll.DEFAULT_ERROR_MESSAGE_TEMPLATE;
+    }
+
+    GetOrThrowExceptionFactory getGetOrThrowExceptionFactory() {
+        return getOrThrowExceptionFactory;
+    }
+
+    /**
+     * Builds the final result of a {@link ResultKind#GET_OR_THROW} method without a conversion service lookup:
+     * the value, the error message, the call arguments and the exception factory of the method are bound with
+     * at most one allocation, none for an empty result of a method without parameters.
+     *
+     * @param result entity returned by the query execution, {@code null} or {@link GetOrThrow}
+     * @param args   call arguments, required only if {@link #needsArgs()}
+     * @return {@code GetOrThrow} with the error message of the method, bound to its exception factory
+     */
+    GetOrThrow<?> wrap(Object result, Object[] args) {
+        if (result instanceof GetOrThrow) {
+            GetOrThrow<?> getOrThrow = (GetOrThrow<?>) result;
+            if (keepsMessage(getOrThrow.getErrorMessageTemplate())) {
+                return getOrThrow.withExceptionFactory(getOrThrowExceptionFactory);
+            }
+            result = getOrThrow.orElse(null);
+        }
+        if (result == null && !hasArgs(args)) {
+            return empty;
+        }
+        return GetOrThrow.of(result, messageTemplate, args, getOrThrowExceptionFactory);
+    }
+
+    /**
+     * Builds the final result of an {@link ResultKind#EXISTS} method: shared between calls when present
+     * or when the method has no parameters, otherwise bound to the call arguments with one allocation.
+     *
+     * @param exists result of the existence check
+     * @param args   call arguments, required only if {@link #needsArgs()}
+     * @return {@code GetOrThrowExists} with the error message of the method, bound to its exception factory
+     */
+    GetOrThrowExists wrapExists(boolean exists, Object[] args) {
+        if (exists) {
+            return present;
+        }
+        return hasArgs(args) ? absent.changeMessage(messageTemplate, args) : absent;
+    }
+
+    /**
+     * Builds the final result of a {@link ResultKind#SCALAR} method: the value, the error message and the exception
+     * factory of the method are bound with the call arguments with at most one allocation, none for an empty result
+     * of a method without parameters.
+     *
+     * @param result {@link GetOrThrowScalar} converted by Spring Data or returned by a default method,
+     *               the raw number of a store that does not convert projections, may be {@code null}
+     * @param args   call arguments, required only if {@link #needsArgs()}
+     * @return scalar result with the error message of the method, bound to its exception factory
+     */
+    GetOrThrowScalar<?> wrapScalar(Object result, Object[] args) {
+        GetOrThrowScalar<?> scalar = result == null || result instanceof GetOrThrowScalar ? (GetOrThrowScalar<?>) result : toScalar(result);
+        if (scalar == null || scalar.isEmpty() && (errorMessageTemplate != null || scalar == unboundEmptyScalar())) {
+            return hasArgs(args) ? emptyScalar.changeMessage(messageTemplate, args) : emptyScalar;
+        }
+        return keepsMessage(scalar.getErrorMessageTemplate())
+                ? scalar.withExceptionFactory(getOrThrowExceptionFactory)
+                : scalar.withMessage(messageTemplate, args, getOrThrowExceptionFactory);
+    }
+
+    private static boolean hasArgs(Object[] args) {
+        return args != null && args.length > 0;
+    }
+
+    /**
+     * @param result raw scalar query result of a store that does not convert projections
+     * @return result of a {@link ResultKind#SCALAR} method with the default message and exception factory
+     */
+    private GetOrThrowScalar<?> toScalar(Object result) {
+        Class<?> returnType = method.getReturnType();
+        return returnType == GetOrThrowLong.class ? GetOrThrowLong.findGetOrThrowLong(result)
+                : returnType == GetOrThrowInt.class ? GetOrThrowInt.findGetOrThrowInt(result)
+                : GetOrThrowDouble.findGetOrThrowDouble(result);
+    }
+
+    /**
+     * @return shared empty instance of the return type, as converted by Spring Data from a query without a value
+     */
+    private GetOrThrowScalar<?> unboundEmptyScalar() {
+        Class<?> returnType = method.getReturnType();
+        return returnType == GetOrThrowLong.class ? GetOrThrowLong.empty()
+                : returnType == GetOrThrowInt.class ? GetOrThrowInt.empty()
+                : GetOrThrowDouble.empty();
+    }
+
+    /**
+     * @return recorder of the method calls, no-op for reactive and not advised methods
+     */
+    GetOrThrowMethodMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return cache of empty results if the method is annotated with {@link NotFoundCache}, otherwise {@code null}
+     */
+    GetOrThrowNegativeCache getNegativeCache() {
+        return negativeCache;
+    }
+
+    /**
+     * @return generation of the negative cache to pass to {@link GetOrThrowAdvice#bind(GetOrThrowMethodMetadata, Object, Object[], long)},
+     * read before the call
+     */
+    long getNegativeCacheGeneration() {
+        return negativeCache == null ? 0 : negativeCache.getGeneration();
+    }
+
+    /**
+     * @return index consulted before the call if the method is annotated with {@link ExistenceIndexed}, otherwise {@code null}
+     */
+    ExistenceIndex getExistenceIndex() {
+        return existenceIndex;
+    }
+
+    /**
+     * @return {@code true} if the method may store entities: they are added to the existence indexes
+     * and the negative caches of the repository become stale
+     */
+    boolean storesEntities() {
+        return storesEntities;
+    }
+
+    /**
+     * @return {@code true} if the method may delete or update entities, so results memoized
+     * by {@link RequestScopedCache} become stale
+     */
+    boolean modifiesEntities() {
+        return modifiesEntities;
+    }
+
+    /**
+     * @return {@code true} if results of the method are memoized in the current request or transaction
+     */
+    boolean isRequestScoped() {
+        return requestScoped;
+    }
+}
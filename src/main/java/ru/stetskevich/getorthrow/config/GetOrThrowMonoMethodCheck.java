@@ -0,0 +1,45 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fails the creation of a Spring Data repository with {@code Mono} methods annotated with {@link NotFoundExceptionMessage}
+ * in the {@code proxy} and {@code aspectj} advice modes. Their pointcuts do not match {@code Mono}, so an empty
+ * {@code Mono} would silently stay empty; only the {@code repository} mode handles these methods.
+ */
+class GetOrThrowMonoMethodCheck implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(repositoryFactory ->
+                    repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            check(repositoryInformation.getRepositoryInterface())));
+        }
+        return bean;
+    }
+
+    /**
+     * @param repositoryInterface interface of the repository being created
+     * @throws IllegalStateException if the interface has {@code Mono} methods annotated with {@link NotFoundExceptionMessage}
+     */
+    static void check(Class<?> repositoryInterface) {
+        List<Method> monoMethods = new ArrayList<>();
+        for (Method method : repositoryInterface.getMethods()) {
+            if (ReactiveGetOrThrowSupport.isMono(method.getReturnType()) && method.isAnnotationPresent(NotFoundExceptionMessage.class)) {
+                monoMethods.add(method);
+            }
+        }
+        if (!monoMethods.isEmpty()) {
+            throw new IllegalStateException("@NotFoundExceptionMessage on Mono methods is supported only with "
+                    + GetOrThrowConfig.ADVICE_MODE_PROPERTY + "=repository: " + monoMethods);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ru.stetskevich.getorthrow.config;
+
+import ru.stetskevich.getorthrow.annotation.NotFoundCache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the arguments a {@link NotFoundCache} method returned an empty result for.
+ * Lookups are lock-free. When the cache is full, one put sweeps it in a single pass: expired entries are purged
+ * and the entries closest to expiry, i.e. the oldest ones, are evicted down to half of the maximum size, so the sweep
+ * runs once per {@code maxSize / 2} puts. Concurrent puts do not wait for the sweep and may briefly exceed the maximum.
+ * <p>
+ * Every {@link #clear()} starts a new generation. An empty result is put with the generation read before its query,
+ * and it is dropped if the cache was cleared meanwhile: otherwise a lookup that missed just before a concurrent save
+ * would cache the stale empty result after the save cleared the cache.
+ */
+final class GetOrThrowNegativeCache {
+
+    private final long ttlNanos;
+
+    private final int maxSize;
+
+    private final Map<Key, Long> expirations = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    GetOrThrowNegativeCache(NotFoundCache annotation) {
+        this(TimeUnit.SECONDS.toNanos(annotation.ttlSeconds()), annotation.maxSize());
+    }
+
+    GetOrThrowNegativeCache(long ttlNanos, int maxSize) {
+        if (ttlNanos <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("NotFoundCache ttl and maxSize must be positive");
+        }
+        this.ttlNanos = ttlNanos;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param args call arguments
+     * @return {@code true} if the method returned an empty result for the arguments and the entry has not expired
+     */
+    boolean contains(Object[] args) {
+        if (expirations.isEmpty()) {
+            return false;
+        }
+        Key key = new Key(args);
+        Long expiresAt = expirations.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt - System.nanoTime() > 0) {
+            return true;
+        }
+        expirations.remove(key, expiresAt);
+        return false;
+    }
+
+    /**
+     * @return current generation, read before the query whose empty result may be put
+     */
+    long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @param args       call arguments
+     * @param generation {@link #getGeneration()} read before the query
+     */
+    void put(Object[] args, long generation) {
+        if (generation != this.generation.get()) {
+            return;
+        }
+        if (expirations.size() >= maxSize) {
+            evict();
+        }
+        Key key = new Key(args == null ? null : args.clone());
+        Long expiresAt = System.nanoTime() + ttlNanos;
+        expirations.put(key, expiresAt);
+        if (generation != this.generation.get()) {
+            // cleared between the check and the put
+            expirations.remove(key, expiresAt);
+        }
+    }
+
+    void clear() {
+        generation.incrementAndGet();
+        expirations.clear();
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            long[] remaining = expirations.values().stream().mapToLong(expiresAt -> expiresAt - now).toArray();
+            Arrays.sort(remaining);
+            int excess = remaining.length - maxSize / 2;
+            long threshold = excess > 0 ? Math.max(remaining[excess - 1], 0) : 0;
+            expirations.values().removeIf(expiresAt -> expiresAt - now <= threshold);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static final class Key {
+
+        private final Object[] args;
+
+        private final int hash;
+
+        private Key(Object[] args) {
+            this.args = args;
+            this.hash = Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Key && hash == ((Key) o).hash && Arrays.deepEquals(args, ((Key) o).args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.util.ClassUtils;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.index.ExistenceIndex;
+import ru.stetskevich.getorthrow.metrics.GetOrThrowMetrics;
+
+/**
+ * Adds {@link GetOrThrowMethodInterceptor} to the proxies of Spring Data repositories that have
+ * methods returning {@link ru.stetskevich.getorthrow.GetOrThrow}. Other beans are not proxied and
+ * no pointcut is evaluated for them.
+ * <p>
+ * The interceptor is placed before the transaction interceptor of the repository, so it sees the transaction
+ * of the caller rather than the one the repository opens per call.
+ */
+public class GetOrThrowRepositoryPostProcessor implements BeanPostProcessor {
+
+    private static final boolean TRANSACTION_PRESENT = ClassUtils.isPresent(
+            "org.springframework.transaction.interceptor.TransactionInterceptor", GetOrThrowRepositoryPostProcessor.class.getClassLoader());
+
+    private final ObjectProvider<GetOrThrowExceptionFactory> getOrThrowExceptionFactory;
+
+    private final ObjectProvider<GetOrThrowMetrics> metrics;
+
+    private final ObjectProvider<ExistenceIndex> existenceIndexes;
+
+    private volatile GetOrThrowMethodInterceptor interceptor;
+
+    public GetOrThrowRepositoryPostProcessor(ObjectProvider<GetOrThrowExceptionFactory> getOrThrowExceptionFactory,
+                                             ObjectProvider<GetOrThrowMetrics> metrics,
+                                             ObjectProvider<ExistenceIndex> existenceIndexes) {
+        this.getOrThrowExceptionFactory = getOrThrowExceptionFactory;
+        this.metrics = metrics;
+        this.existenceIndexes = existenceIndexes;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(repositoryFactory ->
+                    repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+                        if (GetOrThrowMethodInterceptor.supports(repositoryInformation.getRepositoryInterface())) {
+                            proxyFactory.addAdvice(interceptorPosition(proxyFactory), getInterceptor());
+                        }
+                    }));
+        }
+        return bean;
+    }
+
+    /**
+     * @return position of the transaction interceptor of the repository, or the end of the chain if there is none
+     */
+    static int interceptorPosition(Advised proxyFactory) {
+        Advisor[] advisors = proxyFactory.getAdvisors();
+        if (TRANSACTION_PRESENT) {
+            for (int i = 0; i < advisors.length; i++) {
+                if (advisors[i].getAdvice() instanceof TransactionInterceptor) {
+                    return i;
+                }
+            }
+        }
+        return advisors.length;
+    }
+
+    private GetOrThrowMethodInterceptor getInterceptor() {
+        GetOrThrowMethodInterceptor interceptor = this.interceptor;
+        if (interceptor == null) {
+            synchronized (this) {
+                interceptor = this.interceptor;
+                if (interceptor == null) {
+                    interceptor = new GetOrThrowMethodInterceptor(new GetOrThrowAdvice(getOrThrowExceptionFactory.getObject(),
+                            metrics.getIfAvailable(() -> GetOrThrowMetrics.NOOP),
+                            new GetOrThrowExistenceIndexes(existenceIndexes::orderedStream)));
+                    this.interceptor = interceptor;
+                }
+            }
+        }
+        return interceptor;
+    }
+}
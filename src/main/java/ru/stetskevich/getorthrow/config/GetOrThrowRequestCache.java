@@ -0,0 +1,189 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.stetskevich.getorthrow.annotation.RequestScopedCache;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Results of {@link RequestScopedCache} methods memoized by the method and the call arguments.
+ * The results are kept in the attributes of the current request or in a resource of the current transaction,
+ * so they live exactly as long as the scope and no thread local of its own is used: a virtual thread,
+ * a pooled thread or a reactive pipeline without a bound scope sees no memoized results.
+ * <p>
+ * Only an actual transaction of the caller is a scope. The advice runs outside of the transaction a repository
+ * opens per call, and a lookup without a request or an outer transaction is not memoized at all,
+ * so it allocates nothing and registers no synchronization.
+ * <p>
+ * An active transaction is preferred to the request, so the results memoized in it are entities of its persistence
+ * context. A result memoized in the request outside of a transaction outlives the transaction of its query: without
+ * Open Session in View the JPA entity is detached, and its lazy associations throw {@code LazyInitializationException}.
+ */
+public final class GetOrThrowRequestCache {
+
+    private static final String SCOPE_KEY = GetOrThrowRequestCache.class.getName();
+
+    private static final boolean WEB_PRESENT = ClassUtils.isPresent(
+            "org.springframework.web.context.request.RequestContextHolder", GetOrThrowRequestCache.class.getClassLoader());
+
+    private static final boolean TRANSACTION_PRESENT = ClassUtils.isPresent(
+            "org.springframework.transaction.support.TransactionSynchronizationManager", GetOrThrowRequestCache.class.getClassLoader());
+
+    private static volatile boolean used;
+
+    private GetOrThrowRequestCache() {
+    }
+
+    /**
+     * Clears the results memoized in the current scope. Call it after entities were changed
+     * in a way the advice does not see, e.g. with a native query or another data source.
+     */
+    public static void invalidate() {
+        if (!used) {
+            return;
+        }
+        if (TRANSACTION_PRESENT) {
+            clear(TransactionScope.get(false));
+        }
+        if (WEB_PRESENT) {
+            clear(RequestScope.get(false));
+        }
+    }
+
+    private static void clear(Map<Key, Object> results) {
+        if (results != null) {
+            results.clear();
+        }
+    }
+
+    /**
+     * @return result memoized in the current scope or {@code null}
+     */
+    static Object get(Method method, Object[] args) {
+        Map<Key, Object> results = currentScope(false);
+        return results == null || results.isEmpty() ? null : results.get(new Key(method, args));
+    }
+
+    static void put(Method method, Object[] args, Object result) {
+        used = true;
+        Map<Key, Object> results = currentScope(true);
+        if (results != null) {
+            results.put(new Key(method, args == null ? null : args.clone()), result);
+        }
+    }
+
+    /**
+     * An active transaction hides the request: results of the request may be entities detached from its persistence context.
+     */
+    private static Map<Key, Object> currentScope(boolean create) {
+        if (TRANSACTION_PRESENT && TransactionScope.isActive()) {
+            return TransactionScope.get(create);
+        }
+        return WEB_PRESENT ? RequestScope.get(create) : null;
+    }
+
+    private static final class RequestScope {
+
+        @SuppressWarnings("unchecked")
+        static Map<Key, Object> get(boolean create) {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes == null) {
+                return null;
+            }
+            Map<Key, Object> results = (Map<Key, Object>) attributes.getAttribute(SCOPE_KEY, RequestAttributes.SCOPE_REQUEST);
+            if (results == null && create) {
+                results = new ConcurrentHashMap<>();
+                attributes.setAttribute(SCOPE_KEY, results, RequestAttributes.SCOPE_REQUEST);
+            }
+            return results;
+        }
+    }
+
+    private static final class TransactionScope {
+
+        static boolean isActive() {
+            return TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isSynchronizationActive();
+        }
+
+        @SuppressWarnings("unchecked")
+        static Map<Key, Object> get(boolean create) {
+            if (!isActive()) {
+                return null;
+            }
+            Map<Key, Object> results = (Map<Key, Object>) TransactionSynchronizationManager.getResource(SCOPE_KEY);
+            if (results == null && create) {
+                results = new ConcurrentHashMap<>();
+                TransactionSynchronizationManager.bindResource(SCOPE_KEY, results);
+                TransactionSynchronizationManager.registerSynchronization(new Unbinding(results));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Hides the results of a suspended transaction from the inner one and drops them on completion.
+     */
+    private static final class Unbinding implements TransactionSynchronization {
+
+        private final Map<Key, Object> results;
+
+        private Unbinding(Map<Key, Object> results) {
+            this.results = results;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SCOPE_KEY);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(SCOPE_KEY, results);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SCOPE_KEY);
+        }
+    }
+
+    private static final class Key {
+
+        private final Method method;
+
+        private final Object[] args;
+
+        private final int hash;
+
+        private Key(Method method, Object[] args) {
+            this.method = method;
+            this.args = args;
+            this.hash = 31 * method.hashCode() + Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && method.equals(key.method) && Arrays.deepEquals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.data.repository.util.QueryExecutionConverters;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Set;
+
+/**
+ * The only place where the starter changes Spring Data internals. Spring Data 2.x has no public
+ * extension point for custom single value wrapper types, so {@link ru.stetskevich.getorthrow.GetOrThrow}
+ * is added to the static registries once per class loader; if a registry is not accessible, e.g. after a Spring Data
+ * upgrade, a warning is logged and the feature depending on it is disabled. In the default repository advice mode
+ * only the wrapper type is registered. Native images get the accessed fields from
+ * {@code META-INF/native-image/ru.stetskevich/get-or-throw/reflect-config.json}.
+ * <p>
+ * The registries are JVM-wide and the converters keep the exception factory of the application context that registered
+ * them first. The advice therefore binds every result to the factory of its own context again, and the converters
+ * only create results of their own target types. Nothing is added to {@code DefaultConversionService.getSharedInstance()}:
+ * {@code exists} and scalar projections are converted there by stock converters calling static methods
+ * of the result types.
+ */
+final class GetOrThrowSpringDataRegistrar {
+
+    private static final String QUERY_EXECUTION_CONVERTERS = "org.springframework.data.repository.util.QueryExecutionConverters";
+
+    private static final String REPOSITORY_FACTORY_SUPPORT = "org.springframework.data.repository.core.support.RepositoryFactorySupport";
+
+    private static final Logger log = LoggerFactory.getLogger(GetOrThrowSpringDataRegistrar.class);
+
+    private static boolean wrapperTypeRegistered;
+
+    private static boolean repositoryConverterRegistered;
+
+    private GetOrThrowSpringDataRegistrar() {
+    }
+
+    /**
+     * Lets Spring Data unwrap {@code GetOrThrow<T>} to the domain type {@code T} of a query method.
+     *
+     * @return {@code false} if the registry is not accessible, repository methods returning the wrapper type
+     * are not supported then
+     */
+    @SuppressWarnings("unchecked")
+    static synchronized boolean registerWrapperType(Class<?> wrapperType) {
+        if (!wrapperTypeRegistered) {
+            Object wrapperTypes = staticField(QUERY_EXECUTION_CONVERTERS, "WRAPPER_TYPES");
+            if (wrapperTypes instanceof Set) {
+                ((Set<QueryExecutionConverters.WrapperType>) wrapperTypes).add(QueryExecutionConverters.WrapperType.singleValue(wrapperType));
+                wrapperTypeRegistered = true;
+            } else {
+                log.warn("{} is not registered as a Spring Data wrapper type, repository methods returning it will fail",
+                        wrapperType.getName());
+            }
+        }
+        return wrapperTypeRegistered;
+    }
+
+    /**
+     * Converts {@code NullableWrapper} results of repository proxies. Used only outside of the repository advice mode:
+     * the repository interceptor wraps query results itself.
+     *
+     * @return {@code false} if the conversion service is not accessible, query results are not converted then
+     */
+    static synchronized boolean registerRepositoryConverter(Converter<?, ?> converter) {
+        if (!repositoryConverterRegistered) {
+            Object conversionService = staticField(REPOSITORY_FACTORY_SUPPORT, "CONVERSION_SERVICE");
+            if (conversionService instanceof GenericConversionService) {
+                ((GenericConversionService) conversionService).addConverter(converter);
+                repositoryConverterRegistered = true;
+            } else {
+                log.warn("GetOrThrow converter is not registered in Spring Data repositories, use the repository advice mode");
+            }
+        }
+        return repositoryConverterRegistered;
+    }
+
+    /**
+     * Fails soft: a Spring Data upgrade that renames or encapsulates the field disables the feature
+     * instead of the application context.
+     *
+     * @return value of the field, {@code null} if it is missing or not accessible
+     */
+    static Object staticField(String className, String fieldName) {
+        try {
+            Class<?> type = Class.forName(className, false, GetOrThrowSpringDataRegistrar.class.getClassLoader());
+            Field field = ReflectionUtils.findField(type, fieldName);
+            if (field == null) {
+                log.warn("Unsupported Spring Data version: no field {}.{}", className, fieldName);
+                return null;
+            }
+            ReflectionUtils.makeAccessible(field);
+            return field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Can not access {}.{}", className, fieldName, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Mono;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+/**
+ * Not found handling for reactive repository methods. Kept apart from the rest of the advice,
+ * so Reactor is loaded only when it is on the classpath.
+ */
+final class ReactiveGetOrThrowSupport {
+
+    private static final boolean REACTOR_PRESENT =
+            ClassUtils.isPresent("reactor.core.publisher.Mono", ReactiveGetOrThrowSupport.class.getClassLoader());
+
+    private ReactiveGetOrThrowSupport() {
+    }
+
+    static boolean isMono(Class<?> type) {
+        return REACTOR_PRESENT && Mono.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Completes an empty {@code Mono} with the exception of the configured factory. The exception is
+     * created on the subscribing thread only when the {@code Mono} is actually empty.
+     *
+     * @param result   {@code Mono} returned by the repository
+     * @param metadata metadata of the called method
+     * @param args     call arguments
+     * @return {@code Mono} that emits the value or the not found error
+     */
+    static Object orThrow(Object result, GetOrThrowMethodMetadata metadata, Object[] args) {
+        if (result == null) {
+            return null;
+        }
+        NotFoundMessageTemplate template = metadata.getMessageTemplate();
+        GetOrThrowExceptionFactory<?> factory = metadata.getGetOrThrowExceptionFactory();
+        return ((Mono<?>) result).switchIfEmpty(Mono.error(() -> factory.createException(new NotFoundContext(template, args))));
+    }
+}
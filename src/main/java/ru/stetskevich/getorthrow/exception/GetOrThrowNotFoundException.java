@@ -0,0 +1,38 @@
+package ru.stetskevich.getorthrow.exception;
+
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+
+/**
+ * "Not found" exception without a stack trace and suppressed exceptions.
+ * Filling the stack trace is the most expensive part of creating an exception,
+ * and for a not found entity it carries no useful information.
+ */
+public class GetOrThrowNotFoundException extends RuntimeException {
+
+    private final transient NotFoundContext context;
+
+    public GetOrThrowNotFoundException(String message) {
+        super(message, null, false, false);
+        this.context = null;
+    }
+
+    /**
+     * @param context not found result; the message is rendered only if {@link #getMessage()} is called
+     */
+    public GetOrThrowNotFoundException(NotFoundContext context) {
+        super(null, null, false, false);
+        this.context = context;
+    }
+
+    /**
+     * @return not found result description, {@code null} if the exception was created from a message
+     */
+    public NotFoundContext getContext() {
+        return context;
+    }
+
+    @Override
+    public String getMessage() {
+        return context == null ? super.getMessage() : context.getMessage();
+    }
+}
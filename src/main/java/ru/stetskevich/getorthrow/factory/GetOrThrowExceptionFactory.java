@@ -5,4 +5,15 @@ public interface GetOrThrowExceptionFactory <E extends RuntimeException>{
     GetOrThrowExceptionFactory<RuntimeException> DEFAULT = RuntimeException::new;
 
     E createException(String errorMessage);
+
+    /**
+     * Creates the exception thrown by {@code orThrow()}. Override it to use the method
+     * and arguments of the not found call without rendering the message.
+     *
+     * @param context not found result description
+     * @return exception to throw
+     */
+    default E createException(NotFoundContext context) {
+        return createException(context.getMessage());
+    }
 }
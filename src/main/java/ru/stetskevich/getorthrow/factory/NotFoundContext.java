@@ -0,0 +1,58 @@
+package ru.stetskevich.getorthrow.factory;
+
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.lang.reflect.Method;
+
+/**
+ * Describes a not found result for {@link GetOrThrowExceptionFactory#createException(NotFoundContext)}.
+ * The message is rendered on the first {@link #getMessage()} call, so factories that do not
+ * need the message text do not pay for it.
+ */
+public final class NotFoundContext {
+
+    private final NotFoundMessageTemplate template;
+
+    private final Object[] args;
+
+    private String message;
+
+    public NotFoundContext(NotFoundMessageTemplate template, Object[] args) {
+        this.template = template;
+        this.args = args;
+    }
+
+    public NotFoundMessageTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return called repository method, with or without {@link ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage},
+     * {@code null} for results created outside of an advised method
+     */
+    public Method getMethod() {
+        return template.getMethod();
+    }
+
+    /**
+     * @return arguments of the method call whatever the template renders, the missing ids of
+     * {@link ru.stetskevich.getorthrow.GetOrThrowAll}, {@code null} for results created outside of an advised method
+     */
+    public Object[] getArgs() {
+        return args;
+    }
+
+    public String getMessage() {
+        String message = this.message;
+        if (message == null) {
+            message = template.render(args);
+            this.message = message;
+        }
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.stetskevich.getorthrow.factory;
+
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates {@link GetOrThrowNotFoundException} without a stack trace. A context without per-call data, i.e. a static
+ * {@link ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage} template of a method without parameters,
+ * gets one exception instance per template, thrown again on every miss. Any other context gets its own exception,
+ * so {@link GetOrThrowNotFoundException#getContext()} always describes the call that threw it.
+ * <p>
+ * Enabled with {@code get-or-throw.exception.stackless=true}.
+ */
+public class StacklessGetOrThrowExceptionFactory implements GetOrThrowExceptionFactory<GetOrThrowNotFoundException> {
+
+    private final Map<NotFoundMessageTemplate, GetOrThrowNotFoundException> staticExceptions = new ConcurrentHashMap<>();
+
+    @Override
+    public GetOrThrowNotFoundException createException(String errorMessage) {
+        return new GetOrThrowNotFoundException(errorMessage);
+    }
+
+    @Override
+    public GetOrThrowNotFoundException createException(NotFoundContext context) {
+        NotFoundMessageTemplate template = context.getTemplate();
+        Object[] args = context.getArgs();
+        if (template.isStatic() && (args == null || args.length == 0)
+                && (template.getMethod() != null || template == NotFoundMessageTemplate.DEFAULT)) {
+            return staticExceptions.computeIfAbsent(template, t -> new GetOrThrowNotFoundException(context));
+        }
+        return new GetOrThrowNotFoundException(context);
+    }
+}
@@ -0,0 +1,239 @@
+package ru.stetskevich.getorthrow.index;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * {@link ExistenceIndex} backed by a Bloom filter in a compact bit array. The size is fixed on creation
+ * from the expected number of ids and the false positive rate, e.g. 10 million ids with 1% false positives
+ * take about 12 MB. Ids can be added concurrently with lookups.
+ * <p>
+ * Until {@link #load(Stream)} completes every id might exist, so the index can be declared as a bean
+ * and filled later, e.g. from an {@code ApplicationRunner}:
+ * <pre>{@code
+ * @Bean
+ * BloomFilterExistenceIndex<Long, Entity> entityIndex() {
+ *     return BloomFilterExistenceIndex.of(Entity.class, Entity::getId, 10_000_000, 0.01);
+ * }
+ *
+ * @Bean
+ * ApplicationRunner entityIndexLoader(BloomFilterExistenceIndex<Long, Entity> entityIndex, EntityRepository repository) {
+ *     return args -> {
+ *         try (Stream<Long> ids = repository.streamAllIds()) {
+ *             entityIndex.load(ids);
+ *         }
+ *     };
+ * }
+ * }</pre>
+ * Removed entities are not removed from the filter and are looked up in the database as before.
+ * <p>
+ * <b>The index assumes a single writer.</b> Only entities returned by {@code save*} and {@code insert*} methods
+ * of the advised repositories of this instance are added. An id inserted by another instance, by native SQL,
+ * by a bulk update or by an unadvised path stays "definitely absent" and its lookups return not found
+ * until the index is rebuilt. If the table has other writers, {@link #reload(Stream) reload} the index
+ * periodically or on their events, or {@link #clear() clear} it to look up every id in the database
+ * until the next load.
+ *
+ * @param <ID> id type
+ * @param <T>  entity type
+ */
+public final class BloomFilterExistenceIndex<ID, T> implements ExistenceIndex<ID, T> {
+
+    private static final long MAX_BIT_COUNT = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    private final Class<T> entityType;
+
+    private final Function<? super T, ? extends ID> idExtractor;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private volatile AtomicLongArray bits;
+
+    /**
+     * Filter being filled by {@link #reload(Stream)}, receives concurrent adds as well, otherwise {@code null}.
+     */
+    private volatile AtomicLongArray reloading;
+
+    private volatile boolean loaded;
+
+    private BloomFilterExistenceIndex(Class<T> entityType, Function<? super T, ? extends ID> idExtractor, long bitCount, int hashCount) {
+        this.entityType = entityType;
+        this.idExtractor = idExtractor;
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.bits = newBits();
+    }
+
+    /**
+     * @param entityType        type of the indexed entities
+     * @param idExtractor       returns the id of an entity
+     * @param expectedIds       expected number of ids
+     * @param falsePositiveRate desired rate of "might exist" answers for absent ids, between 0 and 1
+     * @return empty index, not loaded
+     */
+    public static <ID, T> BloomFilterExistenceIndex<ID, T> of(Class<T> entityType, Function<? super T, ? extends ID> idExtractor,
+                                                             long expectedIds, double falsePositiveRate) {
+        Objects.requireNonNull(entityType, "entityType");
+        Objects.requireNonNull(idExtractor, "idExtractor");
+        if (expectedIds <= 0) {
+            throw new IllegalArgumentException("expectedIds must be positive");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        double ln2 = Math.log(2);
+        long bitCount = (long) Math.ceil(-expectedIds * Math.log(falsePositiveRate) / (ln2 * ln2));
+        if (bitCount > MAX_BIT_COUNT) {
+            throw new IllegalArgumentException("Bloom filter for " + expectedIds + " ids is too large");
+        }
+        bitCount = Math.max(Long.SIZE, bitCount);
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedIds * ln2));
+        return new BloomFilterExistenceIndex<>(entityType, idExtractor, bitCount, hashCount);
+    }
+
+    /**
+     * Adds the ids of all existing entities and enables the index.
+     *
+     * @param ids ids of all existing entities
+     */
+    public synchronized void load(Stream<? extends ID> ids) {
+        ids.forEach(this::add);
+        loaded = true;
+    }
+
+    /**
+     * Rebuilds the filter from the ids of all existing entities, e.g. to pick up ids inserted by other writers
+     * and to drop removed ones. Lookups keep using the current filter until the new one is complete;
+     * ids added meanwhile go to both. Enables the index if it was not loaded.
+     *
+     * @param ids ids of all existing entities
+     */
+    public synchronized void reload(Stream<? extends ID> ids) {
+        AtomicLongArray reloaded = newBits();
+        reloading = reloaded;
+        try {
+            ids.forEach(id -> set(reloaded, id));
+            bits = reloaded;
+            loaded = true;
+        } finally {
+            reloading = null;
+        }
+    }
+
+    /**
+     * Removes all ids and disables the index: every id might exist and is looked up in the database
+     * until the next {@link #load(Stream)} or {@link #reload(Stream)}.
+     */
+    public synchronized void clear() {
+        loaded = false;
+        bits = newBits();
+    }
+
+    public void add(ID id) {
+        AtomicLongArray target;
+        do {
+            target = bits;
+            set(target, id);
+            AtomicLongArray reloaded = reloading;
+            if (reloaded != null) {
+                set(reloaded, id);
+            }
+            // a reload or clear replaced the filter meanwhile, so the id may have missed the new one
+        } while (target != bits);
+    }
+
+    @Override
+    public void addEntity(T entity) {
+        ID id = idExtractor.apply(entity);
+        if (id != null) {
+            add(id);
+        }
+    }
+
+    @Override
+    public boolean mightContain(ID id) {
+        if (!loaded || id == null) {
+            return true;
+        }
+        AtomicLongArray bits = this.bits;
+        long hash = hash(id);
+        long step = mix(hash + 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long index = (hash & Long.MAX_VALUE) % bitCount;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+            hash += step;
+        }
+        return true;
+    }
+
+    @Override
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @return {@code true} after {@link #load(Stream)} or {@link #reload(Stream)} completed and until {@link #clear()}
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private AtomicLongArray newBits() {
+        return new AtomicLongArray((int) ((bitCount + Long.SIZE - 1) / Long.SIZE));
+    }
+
+    private void set(AtomicLongArray bits, ID id) {
+        long hash = hash(id);
+        long step = mix(hash + 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long index = (hash & Long.MAX_VALUE) % bitCount;
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+            hash += step;
+        }
+    }
+
+    private static long hash(Object id) {
+        long value;
+        if (id instanceof Long || id instanceof Integer || id instanceof Short || id instanceof Byte) {
+            value = ((Number) id).longValue();
+        } else if (id instanceof UUID) {
+            UUID uuid = (UUID) id;
+            value = uuid.getMostSignificantBits() ^ mix(uuid.getLeastSignificantBits());
+        } else {
+            value = id.hashCode();
+        }
+        return mix(value);
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreads every input bit over the result.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE1A85EC9L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
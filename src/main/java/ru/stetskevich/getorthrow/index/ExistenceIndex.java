@@ -0,0 +1,28 @@
+package ru.stetskevich.getorthrow.index;
+
+/**
+ * Index of existing entity ids consulted by {@link ru.stetskevich.getorthrow.annotation.ExistenceIndexed} methods.
+ * It may answer "might exist" for an absent id, but never "absent" for an existing one.
+ * Declare it as a bean; entities saved through the advised repositories are added automatically.
+ *
+ * @param <ID> id type
+ * @param <T>  entity type
+ */
+public interface ExistenceIndex<ID, T> {
+
+    /**
+     * @return type of the indexed entities
+     */
+    Class<T> getEntityType();
+
+    /**
+     * @param id entity id
+     * @return {@code false} only if the entity with the id definitely does not exist
+     */
+    boolean mightContain(ID id);
+
+    /**
+     * @param entity stored entity
+     */
+    void addEntity(T entity);
+}
@@ -0,0 +1,135 @@
+package ru.stetskevich.getorthrow.message;
+
+import ru.stetskevich.getorthrow.GetOrThrow;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Error message template of {@link ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage}
+ * split once into literal segments around {@code {}} placeholders.
+ * <p>
+ * The message is rendered only when it is actually needed, i.e. when {@code orThrow()} throws.
+ * Placeholders are filled with the arguments in order; placeholders without a matching
+ * argument are kept as is and extra arguments are ignored.
+ */
+public final class NotFoundMessageTemplate {
+
+    public static final String PLACEHOLDER = "{}";
+
+    public static final NotFoundMessageTemplate DEFAULT = literal(GetOrThrow.DEFAULT_ERROR_MESSAGE);
+
+    private final String template;
+
+    private final String[] segments;
+
+    private final Method method;
+
+    private NotFoundMessageTemplate(String template, String[] segments, Method method) {
+        this.template = template;
+        this.segments = segments;
+        this.method = method;
+    }
+
+    /**
+     * Parses the template into segments.
+     *
+     * @param template message with {@code {}} placeholders
+     * @return compiled template
+     */
+    public static NotFoundMessageTemplate compile(String template) {
+        return compile(template, null);
+    }
+
+    /**
+     * Parses the template declared on the method.
+     *
+     * @param template message with {@code {}} placeholders
+     * @param method   method annotated with the template
+     * @return compiled template
+     */
+    public static NotFoundMessageTemplate compile(String template, Method method) {
+        List<String> segments = new ArrayList<>();
+        int from = 0;
+        int index;
+        while ((index = template.indexOf(PLACEHOLDER, from)) >= 0) {
+            segments.add(template.substring(from, index));
+            from = index + PLACEHOLDER.length();
+        }
+        segments.add(template.substring(from));
+        return new NotFoundMessageTemplate(template, segments.toArray(new String[0]), method);
+    }
+
+    /**
+     * @param message message used as is, placeholders are not substituted
+     * @return template without placeholders
+     */
+    public static NotFoundMessageTemplate literal(String message) {
+        return new NotFoundMessageTemplate(message, new String[]{message}, null);
+    }
+
+    /**
+     * @param method method the message is reported for
+     * @return template with the same message bound to the method, this template if it is bound to the method already
+     */
+    public NotFoundMessageTemplate forMethod(Method method) {
+        return method == this.method ? this : new NotFoundMessageTemplate(template, segments, method);
+    }
+
+    /**
+     * @return {@code true} if the template has no placeholders and renders the same message for any arguments
+     */
+    public boolean isStatic() {
+        return segments.length == 1;
+    }
+
+    public int getPlaceholderCount() {
+        return segments.length - 1;
+    }
+
+    /**
+     * @param index from {@code 0} to {@link #getPlaceholderCount()}
+     * @return literal text before the placeholder with the index, or after the last placeholder
+     */
+    public String getSegment(int index) {
+        return segments[index];
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return method the template is declared on or bound to by {@link #forMethod(Method)},
+     * {@code null} for templates not bound to a method
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * @param args values for placeholders, may be {@code null}
+     * @return error message
+     */
+    public String render(Object[] args) {
+        if (isStatic()) {
+            return template;
+        }
+        StringBuilder message = new StringBuilder(template.length() + 16 * getPlaceholderCount());
+        for (int i = 0; i < segments.length - 1; i++) {
+            message.append(segments[i]);
+            if (args != null && i < args.length) {
+                message.append(args[i]);
+            } else {
+                message.append(PLACEHOLDER);
+            }
+        }
+        return message.append(segments[segments.length - 1]).toString();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
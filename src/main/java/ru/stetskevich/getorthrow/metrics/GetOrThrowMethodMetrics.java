@@ -0,0 +1,29 @@
+package ru.stetskevich.getorthrow.metrics;
+
+/**
+ * Records the calls of one advised method.
+ */
+public interface GetOrThrowMethodMetrics {
+
+    GetOrThrowMethodMetrics NOOP = new GetOrThrowMethodMetrics() {
+        @Override
+        public long start() {
+            return 0L;
+        }
+
+        @Override
+        public void record(long start, Object result) {
+        }
+    };
+
+    /**
+     * @return start time of the call to pass to {@link #record(long, Object)}
+     */
+    long start();
+
+    /**
+     * @param start  value returned by {@link #start()}
+     * @param result result of the method with the error message bound, {@code null} if the call threw
+     */
+    void record(long start, Object result);
+}
@@ -0,0 +1,36 @@
+package ru.stetskevich.getorthrow.metrics;
+
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+
+import java.lang.reflect.Method;
+
+/**
+ * Metrics of advised repository methods. Recorders are resolved once per method, so the advice
+ * does not look meters up on every call. Without a metrics backend {@link #NOOP} is used.
+ */
+public interface GetOrThrowMetrics {
+
+    GetOrThrowMetrics NOOP = new GetOrThrowMetrics() {
+        @Override
+        public GetOrThrowMethodMetrics forMethod(Method method) {
+            return GetOrThrowMethodMetrics.NOOP;
+        }
+
+        @Override
+        public <E extends RuntimeException> GetOrThrowExceptionFactory<E> instrument(GetOrThrowExceptionFactory<E> getOrThrowExceptionFactory) {
+            return getOrThrowExceptionFactory;
+        }
+    };
+
+    /**
+     * @param method advised method
+     * @return recorder of the method calls
+     */
+    GetOrThrowMethodMetrics forMethod(Method method);
+
+    /**
+     * @param getOrThrowExceptionFactory configured factory
+     * @return factory that also counts the created exceptions, the same instance for the same factory
+     */
+    <E extends RuntimeException> GetOrThrowExceptionFactory<E> instrument(GetOrThrowExceptionFactory<E> getOrThrowExceptionFactory);
+}
@@ -0,0 +1,155 @@
+package ru.stetskevich.getorthrow.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.GetOrThrowAll;
+import ru.stetskevich.getorthrow.GetOrThrowExists;
+import ru.stetskevich.getorthrow.GetOrThrowScalar;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer metrics:
+ * <ul>
+ * <li>{@code get_or_throw.invocations} - timer around the repository call;</li>
+ * <li>{@code get_or_throw.results} - counter of {@code present} and {@code empty} results;</li>
+ * <li>{@code get_or_throw.exceptions} - counter of exceptions created by {@link GetOrThrowExceptionFactory}.</li>
+ * </ul>
+ * Meters are tagged with the declaring class and the method name only, never with the message text or arguments.
+ */
+public class MicrometerGetOrThrowMetrics implements GetOrThrowMetrics {
+
+    public static final String INVOCATIONS = "get_or_throw.invocations";
+    public static final String RESULTS = "get_or_throw.results";
+    public static final String EXCEPTIONS = "get_or_throw.exceptions";
+
+    private static final Tags UNKNOWN_METHOD = Tags.of("class", "unknown", "method", "unknown");
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Method, Counter> exceptionCounters = new ConcurrentHashMap<>();
+
+    private final Counter unknownMethodExceptionCounter;
+
+    private final Map<GetOrThrowExceptionFactory<?>, GetOrThrowExceptionFactory<?>> instrumentedFactories = new ConcurrentHashMap<>();
+
+    public MicrometerGetOrThrowMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.unknownMethodExceptionCounter = exceptionCounter(UNKNOWN_METHOD);
+    }
+
+    @Override
+    public GetOrThrowMethodMetrics forMethod(Method method) {
+        Tags tags = tags(method);
+        return new MethodMetrics(
+                Timer.builder(INVOCATIONS).tags(tags).register(meterRegistry),
+                Counter.builder(RESULTS).tags(tags).tag("result", "present").register(meterRegistry),
+                Counter.builder(RESULTS).tags(tags).tag("result", "empty").register(meterRegistry));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E extends RuntimeException> GetOrThrowExceptionFactory<E> instrument(GetOrThrowExceptionFactory<E> getOrThrowExceptionFactory) {
+        if (getOrThrowExceptionFactory instanceof CountingExceptionFactory) {
+            return getOrThrowExceptionFactory;
+        }
+        GetOrThrowExceptionFactory<?> instrumented = instrumentedFactories.get(getOrThrowExceptionFactory);
+        if (instrumented == null) {
+            instrumented = instrumentedFactories.computeIfAbsent(getOrThrowExceptionFactory, factory -> new CountingExceptionFactory<>(factory));
+        }
+        return (GetOrThrowExceptionFactory<E>) instrumented;
+    }
+
+    private Counter exceptionCounter(Method method) {
+        if (method == null) {
+            return unknownMethodExceptionCounter;
+        }
+        Counter counter = exceptionCounters.get(method);
+        if (counter == null) {
+            counter = exceptionCounters.computeIfAbsent(method, m -> exceptionCounter(tags(m)));
+        }
+        return counter;
+    }
+
+    private Counter exceptionCounter(Tags tags) {
+        return Counter.builder(EXCEPTIONS).tags(tags).register(meterRegistry);
+    }
+
+    private static Tags tags(Method method) {
+        return Tags.of("class", method.getDeclaringClass().getName(), "method", method.getName());
+    }
+
+    /**
+     * Counts the exceptions of one factory. Created once per factory, so results bound to it keep comparing
+     * equal by identity and the advice does not copy them.
+     */
+    private final class CountingExceptionFactory<E extends RuntimeException> implements GetOrThrowExceptionFactory<E> {
+
+        private final GetOrThrowExceptionFactory<E> delegate;
+
+        private CountingExceptionFactory(GetOrThrowExceptionFactory<E> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public E createException(String errorMessage) {
+            unknownMethodExceptionCounter.increment();
+            return delegate.createException(errorMessage);
+        }
+
+        @Override
+        public E createException(NotFoundContext context) {
+            exceptionCounter(context.getMethod()).increment();
+            return delegate.createException(context);
+        }
+    }
+
+    private static final class MethodMetrics implements GetOrThrowMethodMetrics {
+
+        private final Timer timer;
+
+        private final Counter present;
+
+        private final Counter empty;
+
+        private MethodMetrics(Timer timer, Counter present, Counter empty) {
+            this.timer = timer;
+            this.present = present;
+            this.empty = empty;
+        }
+
+        @Override
+        public long start() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void record(long start, Object result) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (result != null) {
+                (isPresent(result) ? present : empty).increment();
+            }
+        }
+
+        private static boolean isPresent(Object result) {
+            if (result instanceof GetOrThrow) {
+                return ((GetOrThrow<?>) result).isPresent();
+            }
+            if (result instanceof GetOrThrowAll) {
+                return ((GetOrThrowAll<?, ?>) result).isComplete();
+            }
+            if (result instanceof GetOrThrowExists) {
+                return ((GetOrThrowExists) result).isPresent();
+            }
+            return ((GetOrThrowScalar<?>) result).isPresent();
+        }
+    }
+}
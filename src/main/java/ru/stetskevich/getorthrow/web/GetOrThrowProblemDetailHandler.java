@@ -0,0 +1,41 @@
+package ru.stetskevich.getorthrow.web;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+
+/**
+ * Maps {@link GetOrThrowNotFoundException} to a {@code 404 application/problem+json} response for Spring MVC and WebFlux:
+ * <pre>{@code
+ *     {"type":"about:blank","title":"Not Found","status":404,"detail":"Not found entity with id = 42"}
+ * }</pre>
+ * The body is written as pre-encoded bytes, without an object mapper. It runs before the exception handlers
+ * of the application, so a catch-all handler does not take over the not found responses.
+ * <p>
+ * Enabled with {@code get-or-throw.web.problem-detail.enabled=true}.
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class GetOrThrowProblemDetailHandler {
+
+    private static final HttpHeaders HEADERS = problemHeaders();
+
+    private final NotFoundProblemEncoder encoder = new NotFoundProblemEncoder();
+
+    @ExceptionHandler(GetOrThrowNotFoundException.class)
+    public ResponseEntity<byte[]> handleNotFound(GetOrThrowNotFoundException exception) {
+        return new ResponseEntity<>(encoder.encode(exception), HEADERS, HttpStatus.NOT_FOUND);
+    }
+
+    private static HttpHeaders problemHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+}
@@ -0,0 +1,153 @@
+package ru.stetskevich.getorthrow.web;
+
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes the RFC 7807 body of a not found response. The JSON of a template is encoded to UTF-8 once:
+ * the whole body of a static template is reused, other templates get only the arguments encoded per response.
+ * Templates declared with {@link ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage} are cached;
+ * messages created at runtime are encoded without caching, so the cache stays bounded by the number of methods.
+ */
+final class NotFoundProblemEncoder {
+
+    private static final String PREFIX = "{\"type\":\"about:blank\",\"title\":\"Not Found\",\"status\":404,\"detail\":\"";
+
+    private static final String SUFFIX = "\"}";
+
+    private static final byte[] PLACEHOLDER = NotFoundMessageTemplate.PLACEHOLDER.getBytes(StandardCharsets.UTF_8);
+
+    private final Map<NotFoundMessageTemplate, byte[][]> encodedTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * @param exception not found exception
+     * @return UTF-8 JSON body, shared between calls for static templates: it must not be modified
+     */
+    byte[] encode(GetOrThrowNotFoundException exception) {
+        NotFoundContext context = exception.getContext();
+        if (context == null) {
+            return encode(exception.getMessage());
+        }
+        NotFoundMessageTemplate template = context.getTemplate();
+        byte[][] segments = template.getMethod() != null || template == NotFoundMessageTemplate.DEFAULT
+                ? encodedTemplates.computeIfAbsent(template, NotFoundProblemEncoder::encodeSegments)
+                : encodeSegments(template);
+        return segments.length == 1 ? segments[0] : join(segments, context.getArgs());
+    }
+
+    private static byte[] encode(String message) {
+        StringBuilder json = new StringBuilder(PREFIX.length() + message.length() + SUFFIX.length() + 8).append(PREFIX);
+        return escape(message, json).append(SUFFIX).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return encoded literal segments of the template, the first one starts and the last one ends the body
+     */
+    private static byte[][] encodeSegments(NotFoundMessageTemplate template) {
+        int count = template.getPlaceholderCount() + 1;
+        byte[][] segments = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            StringBuilder json = new StringBuilder();
+            if (i == 0) {
+                json.append(PREFIX);
+            }
+            escape(template.getSegment(i), json);
+            if (i == count - 1) {
+                json.append(SUFFIX);
+            }
+            segments[i] = json.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return segments;
+    }
+
+    /**
+     * Fills the placeholders the same way as {@link NotFoundMessageTemplate#render(Object[])}.
+     */
+    private static byte[] join(byte[][] segments, Object[] args) {
+        int placeholders = segments.length - 1;
+        if (placeholders == 1) {
+            return concat(segments[0], encodeArg(args, 0), segments[1]);
+        }
+        byte[][] values = new byte[placeholders][];
+        int length = 0;
+        for (int i = 0; i < placeholders; i++) {
+            values[i] = encodeArg(args, i);
+            length += segments[i].length + values[i].length;
+        }
+        byte[] body = new byte[length + segments[placeholders].length];
+        int position = 0;
+        for (int i = 0; i < placeholders; i++) {
+            System.arraycopy(segments[i], 0, body, position, segments[i].length);
+            position += segments[i].length;
+            System.arraycopy(values[i], 0, body, position, values[i].length);
+            position += values[i].length;
+        }
+        System.arraycopy(segments[placeholders], 0, body, position, segments[placeholders].length);
+        return body;
+    }
+
+    private static byte[] concat(byte[] prefix, byte[] value, byte[] suffix) {
+        byte[] body = new byte[prefix.length + value.length + suffix.length];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        System.arraycopy(value, 0, body, prefix.length, value.length);
+        System.arraycopy(suffix, 0, body, prefix.length + value.length, suffix.length);
+        return body;
+    }
+
+    /**
+     * Ids usually need no escaping, so their string is encoded directly.
+     */
+    private static byte[] encodeArg(Object[] args, int index) {
+        if (args == null || index >= args.length) {
+            return PLACEHOLDER;
+        }
+        String value = String.valueOf(args[index]);
+        return (needsEscape(value) ? escape(value, new StringBuilder(value.length() + 8)).toString() : value)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean needsEscape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static StringBuilder escape(String value, StringBuilder json) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.stetskevich.getorthrow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GetOrThrowAllTest {
+
+    private final GetOrThrowAll<Long, Long> result = GetOrThrowAll.of(Arrays.asList(1L, 2L), Collections.singletonList(1L), id -> id);
+
+    @Test
+    void listsMissingIdsInDefaultMessage() {
+        assertEquals(GetOrThrowAll.DEFAULT_ERROR_MESSAGE.replace("{}", "[2]"), result.getErrorMessage());
+    }
+
+    @Test
+    void keepsChangedMessageAsIs() {
+        assertEquals("No users {}", result.changeMessage("No users {}").getErrorMessage());
+    }
+
+    @Test
+    void fillsChangedMessageTemplateWithMissingIds() {
+        assertEquals("No users [2]", result.changeMessageTemplate("No users {}").getErrorMessage());
+    }
+}
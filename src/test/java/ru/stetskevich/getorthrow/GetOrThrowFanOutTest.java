@@ -0,0 +1,205 @@
+package ru.stetskevich.getorthrow;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetOrThrowFanOutTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final GetOrThrowFanOut fanOut = GetOrThrowFanOut.on(executor);
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void runsLookupsConcurrently() {
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        Supplier<GetOrThrow<Integer>> lookup = () -> {
+            try {
+                return GetOrThrow.of(barrier.await(5, TimeUnit.SECONDS));
+            } catch (Exception e) {
+                throw new IllegalStateException("lookups did not run concurrently", e);
+            }
+        };
+
+        GetOrThrowTuple.Of3<Integer, Integer, Integer> found = fanOut.all(lookup, lookup, lookup);
+
+        Object[] arrivals = found.values.clone();
+        Arrays.sort(arrivals);
+        assertArrayEquals(new Object[]{0, 1, 2}, arrivals);
+    }
+
+    @Test
+    void cancelsRemainingLookupsOnFirstMiss() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Supplier<GetOrThrow<String>> miss = () -> {
+            await(started);
+            return GetOrThrow.<String>empty().changeMessage("No user");
+        };
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> fanOut.all(miss, blocking(started, interrupted)));
+
+        assertEquals("No user", exception.getMessage());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "remaining lookup was not cancelled");
+    }
+
+    @Test
+    void throwsExceptionOfLookupAsIs() {
+        IllegalArgumentException failure = new IllegalArgumentException("bad id");
+        GetOrThrowExceptionFactory<IllegalStateException> factory = IllegalStateException::new;
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> fanOut.all(() -> GetOrThrow.of("user"), () -> {
+                    throw failure;
+                }));
+        IllegalStateException notFound = assertThrows(IllegalStateException.class,
+                () -> fanOut.all(() -> GetOrThrow.of("user"), () -> GetOrThrow.empty(factory).changeMessage("No order")));
+
+        assertSame(failure, thrown);
+        assertEquals("No order", notFound.getMessage());
+    }
+
+    @Test
+    void restoresInterruptOfWaitingThread() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        Supplier<GetOrThrow<String>> lookup = blocking(started, interrupted);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicBoolean interruptRestored = new AtomicBoolean();
+        Thread caller = new Thread(() -> {
+            try {
+                fanOut.all(lookup, lookup);
+            } catch (RuntimeException e) {
+                failure.set(e);
+                interruptRestored.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        caller.start();
+
+        await(started);
+        caller.interrupt();
+        caller.join(5000);
+
+        assertTrue(failure.get() instanceof IllegalStateException);
+        assertTrue(failure.get().getCause() instanceof InterruptedException);
+        assertTrue(interruptRestored.get());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "lookups were not cancelled");
+    }
+
+    @Test
+    void returnsValuesInOrderOfLookups() {
+        GetOrThrowTuple.Of5<String, Integer, Long, Boolean, Character> found = fanOut.all(() -> GetOrThrow.of("a"),
+                () -> GetOrThrow.of(1), () -> GetOrThrow.of(2L), () -> GetOrThrow.of(true), () -> GetOrThrow.of('c'));
+
+        assertEquals("a", found.getFirst());
+        assertEquals(1, found.getSecond());
+        assertEquals(2L, found.getThird());
+        assertEquals(true, found.getFourth());
+        assertEquals('c', found.getFifth());
+        assertEquals(Arrays.asList("x", "y"), fanOut.all(Arrays.asList(() -> GetOrThrow.of("x"), () -> GetOrThrow.of("y"))));
+        assertEquals(Collections.emptyList(), fanOut.<String>all(Collections.emptyList()));
+    }
+
+    @Test
+    void comparesTuplesByValues() {
+        GetOrThrowTuple.Of2<String, Integer> tuple = fanOut.all(() -> GetOrThrow.of("a"), () -> GetOrThrow.of(1));
+        GetOrThrowTuple.Of2<String, Integer> same = fanOut.all(() -> GetOrThrow.of("a"), () -> GetOrThrow.of(1));
+        GetOrThrowTuple.Of2<String, Integer> other = fanOut.all(() -> GetOrThrow.of("a"), () -> GetOrThrow.of(2));
+
+        assertEquals(tuple, same);
+        assertEquals(tuple.hashCode(), same.hashCode());
+        assertNotEquals(tuple, other);
+        assertEquals("GetOrThrowTuple[a, 1]", tuple.toString());
+    }
+
+    @Test
+    void rejectsMissingExecutor() {
+        assertThrows(IllegalArgumentException.class, () -> GetOrThrowFanOut.on(null));
+    }
+
+    @Test
+    void createsExecutorFoundByMethodHandle() throws Exception {
+        ExecutorService found = GetOrThrowFanOut.defaultExecutor("newCachedThreadPool");
+        try {
+            Thread thread = found.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            assertFalse(thread.getName().startsWith(GetOrThrowFanOut.FALLBACK_THREAD_PREFIX));
+        } finally {
+            found.shutdownNow();
+        }
+    }
+
+    @Test
+    void fallsBackToDaemonPoolWithoutExecutorMethod() throws Exception {
+        ExecutorService fallback = GetOrThrowFanOut.defaultExecutor("newMissingExecutor");
+        try {
+            Thread thread = fallback.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            assertTrue(thread.isDaemon());
+            assertTrue(thread.getName().startsWith(GetOrThrowFanOut.FALLBACK_THREAD_PREFIX));
+        } finally {
+            fallback.shutdownNow();
+        }
+    }
+
+    @Test
+    void runsDefaultFanOutOnVirtualThreadsWhenAvailable() throws Exception {
+        boolean virtualThreads = Arrays.stream(Executors.class.getMethods())
+                .anyMatch(method -> method.getName().equals(GetOrThrowFanOut.VIRTUAL_THREAD_EXECUTOR));
+
+        Thread thread = GetOrThrow.all(() -> GetOrThrow.of(Thread.currentThread()), () -> GetOrThrow.of("b")).getFirst();
+
+        if (virtualThreads) {
+            assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread));
+        } else {
+            assertTrue(thread.getName().startsWith(GetOrThrowFanOut.FALLBACK_THREAD_PREFIX));
+        }
+    }
+
+    /**
+     * @return lookup that blocks until it is interrupted by the cancellation
+     */
+    private static Supplier<GetOrThrow<String>> blocking(CountDownLatch started, CountDownLatch interrupted) {
+        return () -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return GetOrThrow.of("late");
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS), "lookups did not start");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
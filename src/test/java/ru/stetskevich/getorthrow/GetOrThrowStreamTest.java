@@ -0,0 +1,123 @@
+package ru.stetskevich.getorthrow;
+
+import org.junit.jupiter.api.Test;
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.StacklessGetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetOrThrowStreamTest {
+
+    private static final GetOrThrowExceptionFactory EXCEPTION_FACTORY = new StacklessGetOrThrowExceptionFactory();
+
+    @Test
+    void detectsEmptyResultByReadingFirstElementOnly() {
+        AtomicInteger read = new AtomicInteger();
+        GetOrThrowStream<Integer> result = GetOrThrowStream.of(Stream.iterate(1, i -> i + 1).peek(i -> read.incrementAndGet()));
+
+        assertTrue(result.isPresent());
+        assertFalse(result.isEmpty());
+        assertEquals(1, read.get());
+
+        assertEquals(Arrays.asList(1, 2, 3), result.orThrow().limit(3).collect(Collectors.toList()));
+        assertEquals(3, read.get());
+    }
+
+    @Test
+    void returnsPeekedElementFirst() {
+        GetOrThrowStream<String> result = GetOrThrowStream.of(Stream.of("a", "b", "c"));
+
+        assertTrue(result.isPresent());
+
+        assertEquals(Arrays.asList("a", "b", "c"), result.orThrow().collect(Collectors.toList()));
+    }
+
+    @Test
+    void returnsPeekedElementToIterator() {
+        GetOrThrowStream<String> result = GetOrThrowStream.of(Stream.of("a", "b"));
+
+        List<String> elements = new ArrayList<>();
+        result.orThrow().iterator().forEachRemaining(elements::add);
+
+        assertEquals(Arrays.asList("a", "b"), elements);
+    }
+
+    @Test
+    void returnsNullFirstElement() {
+        GetOrThrowStream<String> result = GetOrThrowStream.of(Stream.of(null, "b"));
+
+        assertEquals(Arrays.asList(null, "b"), result.orThrow().collect(Collectors.toList()));
+    }
+
+    @Test
+    void throwsAndClosesSourceOfEmptyResult() {
+        AtomicBoolean closed = new AtomicBoolean();
+        GetOrThrowStream<String> result = GetOrThrowStream.of(Stream.<String>empty().onClose(() -> closed.set(true)), EXCEPTION_FACTORY)
+                .changeMessage(NotFoundMessageTemplate.compile("No children {}"), "parent");
+
+        assertTrue(result.isEmpty());
+        GetOrThrowNotFoundException exception = assertThrows(GetOrThrowNotFoundException.class, result::orThrow);
+
+        assertEquals("No children parent", exception.getMessage());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void throwsGivenMessageForEmptyResult() {
+        GetOrThrowStream<String> result = GetOrThrowStream.empty(EXCEPTION_FACTORY);
+
+        GetOrThrowNotFoundException exception = assertThrows(GetOrThrowNotFoundException.class, () -> result.orThrow("No children"));
+
+        assertEquals("No children", exception.getMessage());
+    }
+
+    @Test
+    void closingReturnedStreamClosesSource() {
+        AtomicBoolean closed = new AtomicBoolean();
+        GetOrThrowStream<String> result = GetOrThrowStream.of(Stream.of("a").onClose(() -> closed.set(true)));
+
+        try (Stream<String> stream = result.orThrow()) {
+            assertEquals(Collections.singletonList("a"), stream.collect(Collectors.toList()));
+            assertFalse(closed.get());
+        }
+
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void closeClosesUnconsumedSource() {
+        AtomicBoolean closed = new AtomicBoolean();
+        GetOrThrowStream<String> result = GetOrThrowStream.of(Stream.of("a").onClose(() -> closed.set(true)));
+
+        result.close();
+
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void changedMessageSharesSource() {
+        AtomicInteger read = new AtomicInteger();
+        GetOrThrowStream<Integer> result = GetOrThrowStream.of(Stream.of(1, 2).peek(i -> read.incrementAndGet()));
+        assertTrue(result.isPresent());
+
+        GetOrThrowStream<Integer> changed = result.changeMessage("No elements");
+
+        assertTrue(changed.isPresent());
+        assertEquals(1, read.get());
+        assertEquals(Arrays.asList(1, 2), changed.orThrow().collect(Collectors.toList()));
+    }
+}
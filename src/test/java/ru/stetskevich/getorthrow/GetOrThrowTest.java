@@ -0,0 +1,69 @@
+package ru.stetskevich.getorthrow;
+
+import org.junit.jupiter.api.Test;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetOrThrowTest {
+
+    private static final GetOrThrowExceptionFactory<IllegalStateException> FACTORY = IllegalStateException::new;
+
+    @Test
+    void sharesEmptyInstanceOfFactory() {
+        GetOrThrowExceptionFactory<IllegalArgumentException> other = IllegalArgumentException::new;
+        GetOrThrow<String> empty = GetOrThrow.empty(FACTORY);
+
+        assertSame(empty, GetOrThrow.empty(FACTORY));
+        assertSame(GetOrThrow.empty(), GetOrThrow.empty(GetOrThrowExceptionFactory.DEFAULT));
+        assertNotSame(empty, GetOrThrow.empty(other));
+        assertThrows(IllegalArgumentException.class, GetOrThrow.empty(other)::orThrow);
+        assertEquals(GetOrThrow.DEFAULT_ERROR_MESSAGE, assertThrows(IllegalStateException.class, empty::orThrow).getMessage());
+    }
+
+    @Test
+    void comparesByValueOnly() {
+        GetOrThrow<String> value = GetOrThrow.of("a");
+
+        assertEquals(value, GetOrThrow.of("a", FACTORY).changeMessage("No a"));
+        assertEquals(value.hashCode(), GetOrThrow.of("a", FACTORY).hashCode());
+        assertNotEquals(value, GetOrThrow.of("b"));
+        assertEquals(GetOrThrow.empty(), GetOrThrow.empty(FACTORY).changeMessage("No b"));
+        assertEquals(0, GetOrThrow.empty(FACTORY).hashCode());
+        assertNotEquals(value, Optional.of("a"));
+    }
+
+    @Test
+    void mapsValueKeepingMessageAndFactory() {
+        GetOrThrow<String> value = GetOrThrow.of("a", FACTORY).changeMessage("No a");
+        GetOrThrow<String> empty = GetOrThrow.<String>empty(FACTORY).changeMessage("No b");
+
+        assertEquals(GetOrThrow.of("A"), value.map(String::toUpperCase));
+        assertSame(empty, empty.map(String::toUpperCase));
+        GetOrThrow<Object> mappedToNull = value.map(v -> null);
+        assertTrue(mappedToNull.isEmpty());
+        assertEquals("No a", assertThrows(IllegalStateException.class, mappedToNull::orThrow).getMessage());
+        assertSame(GetOrThrow.empty(FACTORY), GetOrThrow.of("a", FACTORY).map(v -> null));
+    }
+
+    @Test
+    void filtersValueKeepingMessageAndFactory() {
+        GetOrThrow<String> value = GetOrThrow.of("a", FACTORY).changeMessage("No a");
+        GetOrThrow<String> empty = GetOrThrow.<String>empty(FACTORY).changeMessage("No b");
+
+        assertSame(value, value.filter("a"::equals));
+        assertSame(empty, empty.filter("a"::equals));
+        GetOrThrow<String> filteredOut = value.filter("b"::equals);
+        assertFalse(filteredOut.isPresent());
+        assertEquals("No a", assertThrows(IllegalStateException.class, filteredOut::orThrow).getMessage());
+        assertSame(GetOrThrow.empty(FACTORY), GetOrThrow.of("a", FACTORY).filter("b"::equals));
+    }
+}
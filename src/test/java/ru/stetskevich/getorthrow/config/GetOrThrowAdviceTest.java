@@ -0,0 +1,237 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.GetOrThrowAll;
+import ru.stetskevich.getorthrow.GetOrThrowExists;
+import ru.stetskevich.getorthrow.GetOrThrowInt;
+import ru.stetskevich.getorthrow.GetOrThrowLong;
+import ru.stetskevich.getorthrow.GetOrThrowScalar;
+import ru.stetskevich.getorthrow.GetOrThrowStream;
+import ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage;
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.factory.StacklessGetOrThrowExceptionFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetOrThrowAdviceTest {
+
+    private final GetOrThrowAdvice advice = new GetOrThrowAdvice(new StacklessGetOrThrowExceptionFactory());
+
+    @Test
+    void bindsQueryResultWithMessageOfMethod() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(Repository.class.getMethod("findOneById", Long.class));
+
+        GetOrThrow<?> hit = (GetOrThrow<?>) advice.bind(metadata, "entity", new Object[]{1L});
+        GetOrThrow<?> miss = (GetOrThrow<?>) advice.bind(metadata, null, new Object[]{2L});
+
+        assertEquals("entity", hit.orThrow());
+        assertEquals("Not found entity with id = 1", hit.getErrorMessage());
+        GetOrThrowNotFoundException exception = assertThrows(GetOrThrowNotFoundException.class, miss::orThrow);
+        assertEquals("Not found entity with id = 2", exception.getMessage());
+    }
+
+    @Test
+    void bindsResultOfDefaultMethodToConfiguredFactory() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata annotated = advice.getMetadata(Repository.class.getMethod("findOneById", Long.class));
+        GetOrThrowMethodMetadata plain = advice.getMetadata(Repository.class.getMethod("findOneByName", String.class));
+
+        GetOrThrow<?> withMessage = (GetOrThrow<?>) advice.bind(annotated, GetOrThrow.empty(), new Object[]{3L});
+        GetOrThrow<?> withoutMessage = (GetOrThrow<?>) advice.bind(plain, GetOrThrow.empty().changeMessage("No entity"), null);
+
+        assertEquals("Not found entity with id = 3",
+                assertThrows(GetOrThrowNotFoundException.class, withMessage::orThrow).getMessage());
+        assertEquals("No entity", assertThrows(GetOrThrowNotFoundException.class, withoutMessage::orThrow).getMessage());
+    }
+
+    @Test
+    void bindsBatchResultToConfiguredFactory() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(Repository.class.getMethod("findAllByIds", Collection.class));
+        Object retval = GetOrThrowAll.of(Arrays.asList(1L, 5L, 5L), Collections.singletonList(1L), id -> id);
+
+        GetOrThrowAll<?, ?> bound = (GetOrThrowAll<?, ?>) advice.bind(metadata, retval, null);
+
+        GetOrThrowNotFoundException exception = assertThrows(GetOrThrowNotFoundException.class, bound::orThrow);
+        assertEquals("Not found entities with ids = [5]", exception.getMessage());
+    }
+
+    @Test
+    void bindsBatchResultWithoutMessageToConfiguredFactory() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(Repository.class.getMethod("findAllByIdsWithDefaultMessage", Collection.class));
+        Object retval = GetOrThrowAll.of(Collections.singletonList(7L), Collections.emptyList(), id -> id);
+
+        GetOrThrowAll<?, ?> bound = (GetOrThrowAll<?, ?>) advice.bind(metadata, retval, null);
+
+        assertThrows(GetOrThrowNotFoundException.class, bound::orThrow);
+    }
+
+    @Test
+    void bindsStreamResultToConfiguredFactory() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(Repository.class.getMethod("streamChildren", String.class));
+        Object retval = GetOrThrowStream.of(Stream.empty());
+
+        GetOrThrowStream<?> bound = (GetOrThrowStream<?>) advice.bind(metadata, retval, new Object[]{"zzz"});
+
+        GetOrThrowNotFoundException exception = assertThrows(GetOrThrowNotFoundException.class, bound::orThrow);
+        assertEquals("No children zzz", exception.getMessage());
+    }
+
+    @Test
+    void bindsScalarResultToConfiguredFactory() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata annotated = advice.getMetadata(Repository.class.getMethod("findVersionById", Long.class));
+        GetOrThrowMethodMetadata plain = advice.getMetadata(Repository.class.getMethod("findQuantityById", Long.class));
+
+        GetOrThrowScalar<?> hit = advice.bindScalar(annotated, GetOrThrowLong.of(3L), new Object[]{1L});
+        GetOrThrowLong miss = (GetOrThrowLong) advice.bindScalar(annotated, GetOrThrowLong.empty(), new Object[]{2L});
+        GetOrThrowInt plainMiss = (GetOrThrowInt) advice.bindScalar(plain, GetOrThrowInt.empty(), new Object[]{4L});
+
+        assertEquals(GetOrThrowLong.of(3L), hit);
+        assertEquals("No version of 2", assertThrows(GetOrThrowNotFoundException.class, miss::orThrow).getMessage());
+        assertThrows(GetOrThrowNotFoundException.class, plainMiss::orThrow);
+    }
+
+    @Test
+    void bindsScalarResultConvertedBySpringData() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata annotated = advice.getMetadata(Repository.class.getMethod("findVersionById", Long.class));
+        GetOrThrowMethodMetadata plain = advice.getMetadata(Repository.class.getMethod("findQuantityById", Long.class));
+        ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+        GetOrThrowScalar<?> hit = advice.bindScalar(annotated, conversionService.convert(5L, GetOrThrowLong.class), new Object[]{1L});
+        GetOrThrowScalar<?> tuple = advice.bindScalar(plain,
+                conversionService.convert(Collections.singletonMap("quantity", 7L), GetOrThrowInt.class), new Object[]{1L});
+        GetOrThrowLong raw = (GetOrThrowLong) advice.bindScalar(annotated, Collections.singletonMap("version", null), new Object[]{2L});
+
+        assertEquals(GetOrThrowLong.of(5L), hit);
+        assertEquals(GetOrThrowInt.of(7), tuple);
+        assertEquals("No version of 2", assertThrows(GetOrThrowNotFoundException.class, raw::orThrow).getMessage());
+    }
+
+    @Test
+    void sharesEmptyScalarResultWithStaticMessage() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata plain = advice.getMetadata(Repository.class.getMethod("findQuantityById", Long.class));
+
+        GetOrThrowScalar<?> converted = advice.bindScalar(plain, GetOrThrowInt.empty(), null);
+
+        assertSame(advice.bindScalar(plain, null, null), converted);
+        assertThrows(GetOrThrowNotFoundException.class, ((GetOrThrowInt) converted)::orThrow);
+    }
+
+    @Test
+    void bindsExistsResultToConfiguredFactory() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata plain = advice.getMetadata(Repository.class.getMethod("existsOneByName", String.class));
+
+        GetOrThrowExists bound = advice.bindExists(plain, GetOrThrowExists.of(false).changeMessage("No entity"), null);
+
+        assertEquals("No entity", assertThrows(GetOrThrowNotFoundException.class, bound::orThrow).getMessage());
+    }
+
+    @Test
+    void bindsRawExistsResultWithMessageOfMethod() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(Repository.class.getMethod("existsOneById", Long.class));
+
+        GetOrThrowExists present = advice.bindExists(metadata, true, new Object[]{1L});
+        GetOrThrowExists absent = advice.bindExists(metadata, false, new Object[]{2L});
+
+        assertTrue(present.isPresent());
+        assertEquals("Not found entity with id = 2",
+                assertThrows(GetOrThrowNotFoundException.class, absent::orThrow).getMessage());
+    }
+
+    @Test
+    void bindsExistsResultConvertedBySpringData() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata plain = advice.getMetadata(Repository.class.getMethod("existsOneByName", String.class));
+        Object converted = DefaultConversionService.getSharedInstance().convert(Boolean.FALSE, GetOrThrowExists.class);
+
+        GetOrThrowExists bound = advice.bindExists(plain, converted, null);
+
+        assertSame(bound, advice.bindExists(plain, false, null));
+        assertThrows(GetOrThrowNotFoundException.class, bound::orThrow);
+    }
+
+    @Test
+    void passesMethodAndArgumentsToExceptionFactory() throws NoSuchMethodException {
+        List<NotFoundContext> contexts = new ArrayList<>();
+        GetOrThrowAdvice advice = new GetOrThrowAdvice(new GetOrThrowExceptionFactory<IllegalStateException>() {
+            @Override
+            public IllegalStateException createException(String errorMessage) {
+                return new IllegalStateException(errorMessage);
+            }
+
+            @Override
+            public IllegalStateException createException(NotFoundContext context) {
+                contexts.add(context);
+                return createException(context.getMessage());
+            }
+        });
+        Method annotated = Repository.class.getMethod("findOneById", Long.class);
+        Method staticMessage = Repository.class.getMethod("findOneByCode", String.class);
+        Method plain = Repository.class.getMethod("findOneByName", String.class);
+        Method plainExists = Repository.class.getMethod("existsOneByName", String.class);
+        Method plainScalar = Repository.class.getMethod("findQuantityById", Long.class);
+
+        GetOrThrow<?> annotatedMiss = (GetOrThrow<?>) advice.bind(advice.getMetadata(annotated), null, new Object[]{1L});
+        GetOrThrow<?> staticMiss = (GetOrThrow<?>) advice.bind(advice.getMetadata(staticMessage), null, new Object[]{"a"});
+        GetOrThrow<?> plainMiss = (GetOrThrow<?>) advice.bind(advice.getMetadata(plain), GetOrThrow.empty(), new Object[]{"b"});
+        GetOrThrowExists existsMiss = advice.bindExists(advice.getMetadata(plainExists), false, new Object[]{"c"});
+        GetOrThrowInt scalarMiss = (GetOrThrowInt) advice.bindScalar(advice.getMetadata(plainScalar), null, new Object[]{2L});
+
+        assertEquals("Not found entity with id = 1", assertThrows(IllegalStateException.class, annotatedMiss::orThrow).getMessage());
+        assertEquals("Entity not found by code", assertThrows(IllegalStateException.class, staticMiss::orThrow).getMessage());
+        assertEquals(GetOrThrow.DEFAULT_ERROR_MESSAGE, assertThrows(IllegalStateException.class, plainMiss::orThrow).getMessage());
+        assertThrows(IllegalStateException.class, existsMiss::orThrow);
+        assertThrows(IllegalStateException.class, scalarMiss::orThrow);
+        assertEquals(Arrays.asList(annotated, staticMessage, plain, plainExists, plainScalar),
+                Arrays.asList(contexts.get(0).getMethod(), contexts.get(1).getMethod(), contexts.get(2).getMethod(),
+                        contexts.get(3).getMethod(), contexts.get(4).getMethod()));
+        assertArrayEquals(new Object[]{1L}, contexts.get(0).getArgs());
+        assertArrayEquals(new Object[]{"a"}, contexts.get(1).getArgs());
+        assertArrayEquals(new Object[]{"b"}, contexts.get(2).getArgs());
+        assertArrayEquals(new Object[]{"c"}, contexts.get(3).getArgs());
+        assertArrayEquals(new Object[]{2L}, contexts.get(4).getArgs());
+    }
+
+    interface Repository {
+
+        @NotFoundExceptionMessage("Not found entity with id = {}")
+        GetOrThrow<String> findOneById(Long id);
+
+        GetOrThrow<String> findOneByName(String name);
+
+        @NotFoundExceptionMessage("Entity not found by code")
+        GetOrThrow<String> findOneByCode(String code);
+
+        @NotFoundExceptionMessage("Not found entities with ids = {}")
+        GetOrThrowAll<Long, Long> findAllByIds(Collection<Long> ids);
+
+        GetOrThrowAll<Long, Long> findAllByIdsWithDefaultMessage(Collection<Long> ids);
+
+        @NotFoundExceptionMessage("No children {}")
+        GetOrThrowStream<String> streamChildren(String parent);
+
+        @NotFoundExceptionMessage("No version of {}")
+        GetOrThrowLong findVersionById(Long id);
+
+        GetOrThrowInt findQuantityById(Long id);
+
+        GetOrThrowExists existsOneByName(String name);
+
+        @NotFoundExceptionMessage("Not found entity with id = {}")
+        GetOrThrowExists existsOneById(Long id);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.weaver.tools.PointcutExpression;
+import org.aspectj.weaver.tools.PointcutParser;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.repository.Repository;
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.GetOrThrowExists;
+
+import java.lang.reflect.Method;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetOrThrowCallAspectTest {
+
+    private final PointcutExpression pointcut = PointcutParser
+            .getPointcutParserSupportingAllPrimitivesAndUsingContextClassloaderForResolution()
+            .parsePointcutExpression(aroundPointcut());
+
+    /**
+     * Stands in for a call site in application code: calls from the starter package are never advised.
+     */
+    private final Method caller = Object.class.getMethod("toString");
+
+    GetOrThrowCallAspectTest() throws NoSuchMethodException {
+    }
+
+    @Test
+    void matchesRepositoryCalls() throws NoSuchMethodException {
+        assertTrue(matches(EntityRepository.class.getMethod("findOneById", Long.class)));
+        assertTrue(matches(EntityRepository.class.getMethod("existsOneById", Long.class)));
+    }
+
+    @Test
+    void skipsGetOrThrowCallsOutsideRepositories() throws NoSuchMethodException {
+        assertFalse(matches(GetOrThrow.class.getMethod("of", Object.class)));
+        assertFalse(matches(GetOrThrow.class.getMethod("map", Function.class)));
+        assertFalse(matches(GetOrThrow.class.getMethod("filter", Predicate.class)));
+        assertFalse(matches(Service.class.getMethod("findOneById", Long.class)));
+    }
+
+    private boolean matches(Method method) {
+        return pointcut.matchesMethodCall(method, caller).alwaysMatches();
+    }
+
+    private static String aroundPointcut() {
+        try {
+            return GetOrThrowCallAspect.class.getMethod("callGetOrThrow", ProceedingJoinPoint.class)
+                    .getAnnotation(Around.class).value();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    interface EntityRepository extends Repository<String, Long> {
+
+        GetOrThrow<String> findOneById(Long id);
+
+        GetOrThrowExists existsOneById(Long id);
+    }
+
+    interface Service {
+
+        GetOrThrow<String> findOneById(Long id);
+    }
+}
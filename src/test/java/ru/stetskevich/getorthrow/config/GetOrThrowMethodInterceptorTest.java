@@ -0,0 +1,139 @@
+package ru.stetskevich.getorthrow.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage;
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+import ru.stetskevich.getorthrow.factory.GetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.factory.StacklessGetOrThrowExceptionFactory;
+import ru.stetskevich.getorthrow.metrics.MicrometerGetOrThrowMetrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetOrThrowMethodInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MicrometerGetOrThrowMetrics metrics = new MicrometerGetOrThrowMetrics(meterRegistry);
+
+    private final GetOrThrowExceptionFactory<?> factory = new StacklessGetOrThrowExceptionFactory();
+
+    private final GetOrThrowAdvice advice = new GetOrThrowAdvice(factory, metrics, GetOrThrowExistenceIndexes.NONE);
+
+    @Test
+    void recordsInvocationThatThrows() {
+        Repository repository = proxy(id -> {
+            throw new IllegalStateException("connection lost");
+        });
+
+        assertThrows(IllegalStateException.class, () -> repository.findOneById(1L));
+
+        assertEquals(1, meterRegistry.get(MicrometerGetOrThrowMetrics.INVOCATIONS).timer().count());
+        assertEquals(0, meterRegistry.find(MicrometerGetOrThrowMetrics.RESULTS).counters().stream()
+                .mapToDouble(Counter::count).sum());
+    }
+
+    @Test
+    void instrumentsFactoryOnce() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata first = advice.getMetadata(Repository.class.getMethod("findOneById", Long.class));
+        GetOrThrowMethodMetadata second = advice.getMetadata(Repository.class.getMethod("findOneByName", String.class));
+        GetOrThrow<String> converted = GetOrThrow.of("entity", metrics.instrument(factory)).changeMessage("No entity");
+
+        assertSame(metrics.instrument(factory), first.getGetOrThrowExceptionFactory());
+        assertSame(first.getGetOrThrowExceptionFactory(), second.getGetOrThrowExceptionFactory());
+        assertSame(converted, advice.bind(second, converted, null));
+    }
+
+    @Test
+    void completesFutureOfMissingValueWithExceptionOfFactory() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        Repository repository = proxy(new Repository() {
+            @Override
+            public GetOrThrow<String> findOneById(Long id) {
+                return GetOrThrow.empty();
+            }
+
+            @Override
+            public CompletableFuture<String> findNameById(Long id) {
+                return id == 1L ? pending : CompletableFuture.completedFuture("name");
+            }
+        });
+
+        CompletableFuture<String> missing = repository.findNameById(1L);
+        pending.complete(null);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, missing::get);
+        assertTrue(exception.getCause() instanceof GetOrThrowNotFoundException);
+        assertEquals("No name of entity 1", exception.getCause().getMessage());
+        assertEquals("name", repository.findNameById(2L).join());
+    }
+
+    @Test
+    void completesFutureOfGetOrThrowWithExceptionOfFactory() {
+        Repository repository = proxy(id -> GetOrThrow.empty());
+
+        CompletableFuture<String> missing = GetOrThrow.orThrowAsync(repository.findAsyncById(3L));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, missing::get);
+        assertTrue(exception.getCause() instanceof GetOrThrowNotFoundException);
+        assertEquals("No entity 3", exception.getCause().getMessage());
+    }
+
+    @Test
+    void passesUpstreamFailureThrough() {
+        IllegalStateException failure = new IllegalStateException("connection lost");
+        Repository repository = proxy(new Repository() {
+            @Override
+            public GetOrThrow<String> findOneById(Long id) {
+                return GetOrThrow.empty();
+            }
+
+            @Override
+            public CompletableFuture<String> findNameById(Long id) {
+                CompletableFuture<String> failed = new CompletableFuture<>();
+                failed.completeExceptionally(failure);
+                return failed;
+            }
+        });
+
+        ExecutionException exception = assertThrows(ExecutionException.class, repository.findNameById(4L)::get);
+
+        assertSame(failure, exception.getCause());
+    }
+
+    private Repository proxy(Repository target) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(Repository.class);
+        proxyFactory.addAdvice(new GetOrThrowMethodInterceptor(advice));
+        return (Repository) proxyFactory.getProxy();
+    }
+
+    interface Repository {
+
+        GetOrThrow<String> findOneById(Long id);
+
+        default GetOrThrow<String> findOneByName(String name) {
+            return GetOrThrow.empty();
+        }
+
+        @NotFoundExceptionMessage("No name of entity {}")
+        default CompletableFuture<String> findNameById(Long id) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @NotFoundExceptionMessage("No entity {}")
+        default CompletableFuture<GetOrThrow<String>> findAsyncById(Long id) {
+            return CompletableFuture.supplyAsync(() -> null);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.junit.jupiter.api.Test;
+import ru.stetskevich.getorthrow.GetOrThrow;
+import ru.stetskevich.getorthrow.annotation.NotFoundCache;
+import ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage;
+import ru.stetskevich.getorthrow.factory.StacklessGetOrThrowExceptionFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetOrThrowNegativeCacheTest {
+
+    @Test
+    void containsPutArguments() {
+        GetOrThrowNegativeCache cache = new GetOrThrowNegativeCache(TimeUnit.MINUTES.toNanos(1), 10);
+        Object[] args = {1L, new String[]{"a"}};
+
+        put(cache, args);
+        args[0] = 2L;
+
+        assertTrue(cache.contains(new Object[]{1L, new String[]{"a"}}));
+        assertFalse(cache.contains(new Object[]{2L, new String[]{"a"}}));
+        assertFalse(cache.contains(new Object[]{1L, new String[]{"b"}}));
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() throws InterruptedException {
+        GetOrThrowNegativeCache cache = new GetOrThrowNegativeCache(TimeUnit.MILLISECONDS.toNanos(20), 10);
+
+        put(cache, new Object[]{1L});
+        assertTrue(cache.contains(new Object[]{1L}));
+        Thread.sleep(50);
+
+        assertFalse(cache.contains(new Object[]{1L}));
+    }
+
+    @Test
+    void evictsEntriesAboveMaxSize() {
+        GetOrThrowNegativeCache cache = new GetOrThrowNegativeCache(TimeUnit.MINUTES.toNanos(1), 3);
+
+        IntStream.range(0, 10).forEach(id -> put(cache, new Object[]{id}));
+
+        long cached = IntStream.range(0, 10).filter(id -> cache.contains(new Object[]{id})).count();
+        assertTrue(cached <= 3, () -> cached + " entries cached");
+        assertTrue(cache.contains(new Object[]{9}));
+    }
+
+    @Test
+    void evictsOldestHalfInOneSweep() {
+        GetOrThrowNegativeCache cache = new GetOrThrowNegativeCache(TimeUnit.MINUTES.toNanos(1), 4);
+        IntStream.range(0, 4).forEach(id -> put(cache, new Object[]{id}));
+
+        put(cache, new Object[]{4});
+
+        assertFalse(cache.contains(new Object[]{0}));
+        assertFalse(cache.contains(new Object[]{1}));
+        assertTrue(cache.contains(new Object[]{2}));
+        assertTrue(cache.contains(new Object[]{3}));
+        assertTrue(cache.contains(new Object[]{4}));
+    }
+
+    @Test
+    void evictsExpiredEntriesFirst() throws InterruptedException {
+        GetOrThrowNegativeCache cache = new GetOrThrowNegativeCache(TimeUnit.MILLISECONDS.toNanos(20), 2);
+        put(cache, new Object[]{1L});
+        Thread.sleep(50);
+
+        put(cache, new Object[]{2L});
+        put(cache, new Object[]{3L});
+
+        assertFalse(cache.contains(new Object[]{1L}));
+        assertTrue(cache.contains(new Object[]{2L}));
+        assertTrue(cache.contains(new Object[]{3L}));
+    }
+
+    @Test
+    void rejectsNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new GetOrThrowNegativeCache(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GetOrThrowNegativeCache(1, 0));
+    }
+
+    @Test
+    void answersEmptyResultFromCacheUntilRepositorySaves() throws NoSuchMethodException {
+        GetOrThrowAdvice advice = new GetOrThrowAdvice(new StacklessGetOrThrowExceptionFactory());
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(CachedRepository.class.getMethod("findOneById", Long.class));
+        Object[] args = {1L};
+        assertNull(advice.getKnownResult(metadata, args));
+
+        advice.bind(metadata, null, args);
+        GetOrThrow<?> known = (GetOrThrow<?>) advice.getKnownResult(metadata, args);
+
+        assertNotNull(known);
+        assertTrue(known.isEmpty());
+        assertEquals("Not found entity with id = 1", known.getErrorMessage());
+
+        advice.entitiesStored((OtherRepository) () -> null, "other");
+        assertNotNull(advice.getKnownResult(metadata, args));
+
+        advice.entitiesStored((CachedRepository) id -> null, "entity");
+        assertNull(advice.getKnownResult(metadata, args));
+    }
+
+    @Test
+    void dropsEmptyResultReadBeforeClear() {
+        GetOrThrowNegativeCache cache = new GetOrThrowNegativeCache(TimeUnit.MINUTES.toNanos(1), 10);
+        long generation = cache.getGeneration();
+
+        cache.clear();
+        cache.put(new Object[]{1L}, generation);
+
+        assertFalse(cache.contains(new Object[]{1L}));
+        put(cache, new Object[]{1L});
+        assertTrue(cache.contains(new Object[]{1L}));
+    }
+
+    @Test
+    void doesNotCacheEmptyResultOfQueryOverlappingSave() throws NoSuchMethodException {
+        GetOrThrowAdvice advice = new GetOrThrowAdvice(new StacklessGetOrThrowExceptionFactory());
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(CachedRepository.class.getMethod("findOneById", Long.class));
+        Object[] args = {1L};
+        long generation = metadata.getNegativeCacheGeneration();
+
+        advice.entitiesStored((CachedRepository) id -> null, "entity");
+        GetOrThrow<?> result = (GetOrThrow<?>) advice.bind(metadata, null, args, generation);
+
+        assertTrue(result.isEmpty());
+        assertNull(advice.getKnownResult(metadata, args));
+    }
+
+    private static void put(GetOrThrowNegativeCache cache, Object[] args) {
+        cache.put(args, cache.getGeneration());
+    }
+
+    interface CachedRepository {
+
+        @NotFoundCache
+        @NotFoundExceptionMessage("Not found entity with id = {}")
+        GetOrThrow<String> findOneById(Long id);
+    }
+
+    interface OtherRepository {
+
+        GetOrThrow<String> findFirst();
+    }
+}
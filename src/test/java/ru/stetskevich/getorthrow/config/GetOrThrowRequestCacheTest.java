@@ -0,0 +1,160 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.dao.support.PersistenceExceptionTranslationInterceptor;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetOrThrowRequestCacheTest {
+
+    private final Method method = Object.class.getMethod("toString");
+
+    GetOrThrowRequestCacheTest() throws NoSuchMethodException {
+    }
+
+    @AfterEach
+    void clearScopes() {
+        completeTransaction();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void memoizesResultsInActualTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        Object result = new Object();
+
+        GetOrThrowRequestCache.put(method, new Object[]{1L}, result);
+
+        assertSame(result, GetOrThrowRequestCache.get(method, new Object[]{1L}));
+        assertNull(GetOrThrowRequestCache.get(method, new Object[]{2L}));
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+
+        GetOrThrowRequestCache.invalidate();
+
+        assertNull(GetOrThrowRequestCache.get(method, new Object[]{1L}));
+    }
+
+    @Test
+    void skipsSynchronizationWithoutActualTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        GetOrThrowRequestCache.put(method, new Object[]{1L}, new Object());
+
+        assertNull(GetOrThrowRequestCache.get(method, new Object[]{1L}));
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+        assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+    }
+
+    @Test
+    void skipsCallsOutsideOfScopes() {
+        GetOrThrowRequestCache.put(method, new Object[]{1L}, new Object());
+
+        assertNull(GetOrThrowRequestCache.get(method, new Object[]{1L}));
+    }
+
+    @Test
+    void prefersActualTransactionToRequest() {
+        RequestContextHolder.setRequestAttributes(new MapRequestAttributes());
+        Object detached = new Object();
+        Object managed = new Object();
+        GetOrThrowRequestCache.put(method, new Object[]{1L}, detached);
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertNull(GetOrThrowRequestCache.get(method, new Object[]{1L}));
+        GetOrThrowRequestCache.put(method, new Object[]{1L}, managed);
+        assertSame(managed, GetOrThrowRequestCache.get(method, new Object[]{1L}));
+
+        completeTransaction();
+
+        assertSame(detached, GetOrThrowRequestCache.get(method, new Object[]{1L}));
+        GetOrThrowRequestCache.invalidate();
+        assertNull(GetOrThrowRequestCache.get(method, new Object[]{1L}));
+    }
+
+    @Test
+    void placesInterceptorBeforeTransactionInterceptorOfRepository() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(ExposeInvocationInterceptor.ADVISOR);
+        proxyFactory.addAdvice(new PersistenceExceptionTranslationInterceptor());
+        proxyFactory.addAdvice(new TransactionInterceptor());
+
+        assertEquals(2, GetOrThrowRepositoryPostProcessor.interceptorPosition(proxyFactory));
+    }
+
+    @Test
+    void placesInterceptorLastWithoutTransactionInterceptor() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(ExposeInvocationInterceptor.ADVISOR);
+
+        assertEquals(1, GetOrThrowRepositoryPostProcessor.interceptorPosition(proxyFactory));
+    }
+
+    private static void completeTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(0));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static final class MapRequestAttributes implements RequestAttributes {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        @Override
+        public Object getAttribute(String name, int scope) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value, int scope) {
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name, int scope) {
+            attributes.remove(name);
+        }
+
+        @Override
+        public String[] getAttributeNames(int scope) {
+            return attributes.keySet().toArray(new String[0]);
+        }
+
+        @Override
+        public void registerDestructionCallback(String name, Runnable callback, int scope) {
+        }
+
+        @Override
+        public Object resolveReference(String key) {
+            return null;
+        }
+
+        @Override
+        public String getSessionId() {
+            return "session";
+        }
+
+        @Override
+        public Object getSessionMutex() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GetOrThrowSpringDataRegistrarTest {
+
+    @Test
+    void readsSpringDataRegistry() {
+        assertNotNull(GetOrThrowSpringDataRegistrar.staticField(
+                "org.springframework.data.repository.util.QueryExecutionConverters", "WRAPPER_TYPES"));
+    }
+
+    @Test
+    void failsSoftOnMissingOrEncapsulatedField() {
+        assertNull(GetOrThrowSpringDataRegistrar.staticField(
+                "org.springframework.data.repository.util.QueryExecutionConverters", "RENAMED_WRAPPER_TYPES"));
+        assertNull(GetOrThrowSpringDataRegistrar.staticField("org.springframework.data.repository.util.MissingConverters", "WRAPPER_TYPES"));
+        assertNull(GetOrThrowSpringDataRegistrar.staticField("java.lang.Integer", "digits"));
+    }
+}
@@ -0,0 +1,56 @@
+package ru.stetskevich.getorthrow.config;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import ru.stetskevich.getorthrow.annotation.NotFoundExceptionMessage;
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+import ru.stetskevich.getorthrow.factory.StacklessGetOrThrowExceptionFactory;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactiveGetOrThrowSupportTest {
+
+    private final GetOrThrowAdvice advice = new GetOrThrowAdvice(new StacklessGetOrThrowExceptionFactory());
+
+    @Test
+    void completesEmptyMonoWithExceptionOfFactory() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(Repository.class.getMethod("findOneById", Long.class));
+
+        Mono<?> bound = (Mono<?>) advice.bind(metadata, Mono.empty(), new Object[]{1L});
+
+        GetOrThrowNotFoundException exception = assertThrows(GetOrThrowNotFoundException.class, bound::block);
+        assertEquals("Not found entity with id = 1", exception.getMessage());
+    }
+
+    @Test
+    void passesValueThrough() throws NoSuchMethodException {
+        GetOrThrowMethodMetadata metadata = advice.getMetadata(Repository.class.getMethod("findOneById", Long.class));
+
+        Mono<?> bound = (Mono<?>) advice.bind(metadata, Mono.just("entity"), new Object[]{2L});
+
+        assertEquals("entity", bound.block());
+    }
+
+    @Test
+    void rejectsAnnotatedMonoMethodsOutsideOfRepositoryMode() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> GetOrThrowMonoMethodCheck.check(Repository.class));
+
+        assertTrue(exception.getMessage().contains("findOneById"));
+        assertDoesNotThrow(() -> GetOrThrowMonoMethodCheck.check(PlainRepository.class));
+    }
+
+    interface Repository {
+
+        @NotFoundExceptionMessage("Not found entity with id = {}")
+        Mono<String> findOneById(Long id);
+    }
+
+    interface PlainRepository {
+
+        Mono<String> findOneById(Long id);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.stetskevich.getorthrow.factory;
+
+import org.junit.jupiter.api.Test;
+import ru.stetskevich.getorthrow.GetOrThrowAll;
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StacklessGetOrThrowExceptionFactoryTest {
+
+    private final StacklessGetOrThrowExceptionFactory factory = new StacklessGetOrThrowExceptionFactory();
+
+    @Test
+    void reusesExceptionOfContextWithoutCallData() throws NoSuchMethodException {
+        Method method = Object.class.getMethod("hashCode");
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("No entity", method);
+
+        GetOrThrowNotFoundException first = factory.createException(new NotFoundContext(template, null));
+
+        assertSame(first, factory.createException(new NotFoundContext(template, new Object[0])));
+        assertEquals(0, first.getStackTrace().length);
+    }
+
+    @Test
+    void createsExceptionPerCallWithArguments() throws NoSuchMethodException {
+        Method method = Object.class.getMethod("equals", Object.class);
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("No entity", method);
+
+        GetOrThrowNotFoundException first = factory.createException(new NotFoundContext(template, new Object[]{1L}));
+        GetOrThrowNotFoundException second = factory.createException(new NotFoundContext(template, new Object[]{2L}));
+
+        assertNotSame(first, second);
+        assertArrayEquals(new Object[]{1L}, first.getContext().getArgs());
+        assertArrayEquals(new Object[]{2L}, second.getContext().getArgs());
+        assertEquals("No entity", second.getMessage());
+    }
+
+    @Test
+    void reportsMissingIdsOfEachBatch() throws NoSuchMethodException {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Missing ids", Object.class.getMethod("toString"));
+        GetOrThrowAll<Long, Long> first = GetOrThrowAll.of(Arrays.asList(1L, 2L), Collections.singletonList(1L), id -> id, factory)
+                .changeMessage(template);
+        GetOrThrowAll<Long, Long> second = GetOrThrowAll.of(Arrays.asList(3L, 4L), Collections.<Long>emptyList(), id -> id, factory)
+                .changeMessage(template);
+
+        GetOrThrowNotFoundException firstException = assertThrows(GetOrThrowNotFoundException.class, first::orThrow);
+        GetOrThrowNotFoundException secondException = assertThrows(GetOrThrowNotFoundException.class, second::orThrow);
+
+        assertArrayEquals(new Object[]{Collections.singletonList(2L)}, firstException.getContext().getArgs());
+        assertArrayEquals(new Object[]{Arrays.asList(3L, 4L)}, secondException.getContext().getArgs());
+    }
+}
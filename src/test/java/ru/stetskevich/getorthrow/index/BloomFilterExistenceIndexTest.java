@@ -0,0 +1,96 @@
+package ru.stetskevich.getorthrow.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterExistenceIndexTest {
+
+    private static final int IDS = 100_000;
+
+    @Test
+    void hasNoFalseNegativesForLongIds() {
+        BloomFilterExistenceIndex<Long, Object> index = BloomFilterExistenceIndex.of(Object.class, entity -> 0L, IDS, 0.01);
+        index.load(LongStream.rangeClosed(1, IDS).map(id -> id * 7919).boxed());
+
+        LongStream.rangeClosed(1, IDS).forEach(id -> assertTrue(index.mightContain(id * 7919), () -> "id " + id * 7919));
+        assertFalsePositiveRate(index, IDS + 1, id -> (long) id * 7919);
+    }
+
+    @Test
+    void hasNoFalseNegativesForIntegerIds() {
+        BloomFilterExistenceIndex<Integer, Object> index = BloomFilterExistenceIndex.of(Object.class, entity -> 0, IDS, 0.01);
+        index.load(IntStream.range(-IDS / 2, IDS / 2).boxed());
+
+        IntStream.range(-IDS / 2, IDS / 2).forEach(id -> assertTrue(index.mightContain(id), () -> "id " + id));
+        assertFalsePositiveRate(index, IDS, Function.identity());
+    }
+
+    @Test
+    void hasNoFalseNegativesForStringIds() {
+        BloomFilterExistenceIndex<String, Object> index = BloomFilterExistenceIndex.of(Object.class, entity -> "", IDS, 0.01);
+        index.load(IntStream.range(0, IDS).mapToObj(id -> "item-" + id));
+
+        IntStream.range(0, IDS).forEach(id -> assertTrue(index.mightContain("item-" + id), () -> "id item-" + id));
+        assertFalsePositiveRate(index, IDS, id -> "item-" + id);
+    }
+
+    @Test
+    void addsIdsOfStoredEntities() {
+        BloomFilterExistenceIndex<Long, Long> index = BloomFilterExistenceIndex.of(Long.class, Function.identity(), IDS, 0.01);
+        index.load(Stream.empty());
+
+        index.addEntity(42L);
+
+        assertTrue(index.mightContain(42L));
+    }
+
+    @Test
+    void everyIdMightExistUntilLoaded() {
+        BloomFilterExistenceIndex<Long, Object> index = BloomFilterExistenceIndex.of(Object.class, entity -> 0L, IDS, 0.01);
+
+        assertFalse(index.isLoaded());
+        assertTrue(index.mightContain(1L));
+    }
+
+    @Test
+    void reloadReplacesIds() {
+        BloomFilterExistenceIndex<Long, Object> index = BloomFilterExistenceIndex.of(Object.class, entity -> 0L, IDS, 0.01);
+        index.load(LongStream.range(0, IDS).boxed());
+
+        index.reload(LongStream.range(IDS, 2 * IDS).boxed());
+
+        LongStream.range(IDS, 2 * IDS).forEach(id -> assertTrue(index.mightContain(id), () -> "id " + id));
+        assertFalsePositiveRate(index, 0, id -> (long) id);
+    }
+
+    @Test
+    void clearDisablesIndexUntilNextLoad() {
+        BloomFilterExistenceIndex<Long, Object> index = BloomFilterExistenceIndex.of(Object.class, entity -> 0L, IDS, 0.01);
+        index.load(Stream.of(1L));
+
+        index.clear();
+
+        assertFalse(index.isLoaded());
+        assertTrue(index.mightContain(2L));
+
+        index.load(Stream.of(3L));
+
+        assertTrue(index.mightContain(3L));
+        assertFalse(index.mightContain(1L));
+    }
+
+    /**
+     * Checks {@code IDS} absent ids starting from {@code first}, allowing twice the configured rate.
+     */
+    private static <ID> void assertFalsePositiveRate(BloomFilterExistenceIndex<ID, ?> index, int first, Function<Integer, ID> id) {
+        long falsePositives = IntStream.range(first, first + IDS).filter(i -> index.mightContain(id.apply(i))).count();
+        assertTrue(falsePositives < IDS * 0.02, () -> falsePositives + " false positives of " + IDS);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.stetskevich.getorthrow.message;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotFoundMessageTemplateTest {
+
+    @Test
+    void rendersArgumentsInOrder() {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Not found {} with id = {}");
+
+        assertEquals(2, template.getPlaceholderCount());
+        assertEquals("Not found user with id = 1", template.render(new Object[]{"user", 1L}));
+    }
+
+    @Test
+    void rendersDollarAndBackslashLiterally() {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Not found {} in $1\\{}");
+
+        assertEquals("Not found $0\\n in $1\\\\$", template.render(new Object[]{"$0\\n", "\\$"}));
+    }
+
+    @Test
+    void keepsPlaceholdersWithoutArguments() {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Not found {} with id = {}");
+
+        assertEquals("Not found user with id = {}", template.render(new Object[]{"user"}));
+        assertEquals("Not found {} with id = {}", template.render(new Object[0]));
+        assertEquals("Not found {} with id = {}", template.render(null));
+    }
+
+    @Test
+    void ignoresExtraArguments() {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Not found id = {}");
+
+        assertEquals("Not found id = 1", template.render(new Object[]{1L, 2L, 3L}));
+    }
+
+    @Test
+    void rendersNullArgument() {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Not found id = {}");
+
+        assertEquals("Not found id = null", template.render(new Object[]{null}));
+    }
+
+    @Test
+    void rendersPlaceholdersAtEdges() {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("{} not found {}");
+
+        assertEquals("", template.getSegment(0));
+        assertEquals("", template.getSegment(2));
+        assertEquals("a not found b", template.render(new Object[]{"a", "b"}));
+    }
+
+    @Test
+    void rendersAdjacentAndOnlyPlaceholders() {
+        assertEquals("ab", NotFoundMessageTemplate.compile("{}{}").render(new Object[]{"a", "b"}));
+        assertEquals("a", NotFoundMessageTemplate.compile("{}").render(new Object[]{"a"}));
+    }
+
+    @Test
+    void doesNotTreatUnpairedBracesAsPlaceholder() {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("{ id } {{}}");
+
+        assertEquals(1, template.getPlaceholderCount());
+        assertEquals("{ id } {1}", template.render(new Object[]{1}));
+    }
+
+    @Test
+    void staticTemplateRendersTemplate() {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Not found");
+
+        assertTrue(template.isStatic());
+        assertEquals("Not found", template.render(new Object[]{1L}));
+    }
+
+    @Test
+    void literalKeepsPlaceholders() {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.literal("Not found {}");
+
+        assertTrue(template.isStatic());
+        assertFalse(NotFoundMessageTemplate.compile("Not found {}").isStatic());
+        assertEquals("Not found {}", template.render(new Object[]{1L}));
+    }
+}
@@ -0,0 +1,86 @@
+package ru.stetskevich.getorthrow.web;
+
+import org.junit.jupiter.api.Test;
+import ru.stetskevich.getorthrow.exception.GetOrThrowNotFoundException;
+import ru.stetskevich.getorthrow.factory.NotFoundContext;
+import ru.stetskevich.getorthrow.message.NotFoundMessageTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class NotFoundProblemEncoderTest {
+
+    private static final String PREFIX = "{\"type\":\"about:blank\",\"title\":\"Not Found\",\"status\":404,\"detail\":\"";
+
+    private final NotFoundProblemEncoder encoder = new NotFoundProblemEncoder();
+
+    @Test
+    void escapesQuotesAndBackslashesOfArguments() throws NoSuchMethodException {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Not found {}", Object.class.getMethod("toString"));
+
+        assertEquals(PREFIX + "Not found a\\\"b\\\\c\"}", encode(template, "a\"b\\c"));
+    }
+
+    @Test
+    void escapesControlCharactersOfArguments() throws NoSuchMethodException {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Not found {}", Object.class.getMethod("toString"));
+
+        assertEquals(PREFIX + "Not found \\n\\r\\t\\u0000\\u001f\"}", encode(template, "\n\r\t\u0000\u001f"));
+    }
+
+    @Test
+    void keepsNonAsciiCharactersAsUtf8() throws NoSuchMethodException {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("\u041D\u0435 \u043D\u0430\u0439\u0434\u0435\u043D {}", Object.class.getMethod("toString"));
+
+        assertEquals(PREFIX + "\u041D\u0435 \u043D\u0430\u0439\u0434\u0435\u043D \u043A\u043B\u044E\u0447 \u2028 \uD83D\uDD11\"}", encode(template, "\u043A\u043B\u044E\u0447 \u2028 \uD83D\uDD11"));
+    }
+
+    @Test
+    void escapesTemplateSegments() throws NoSuchMethodException {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("\"{}\"\n{}\\", Object.class.getMethod("toString"));
+
+        assertEquals(PREFIX + "\\\"1\\\"\\n2\\\\\"}", encode(template, 1, 2));
+    }
+
+    @Test
+    void fillsPlaceholdersLikeRender() throws NoSuchMethodException {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("{} and {}", Object.class.getMethod("toString"));
+
+        assertEquals(PREFIX + "1 and {}\"}", encode(template, 1));
+        assertEquals(PREFIX + "1 and 2\"}", encode(template, 1, 2, 3));
+        assertEquals(PREFIX + "null and {}\"}", encode(template, (Object) null));
+    }
+
+    @Test
+    void encodesTemplatesWithoutMethod() {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Not found \"{}\"");
+
+        assertEquals(PREFIX + "Not found \\\"1\\\"\"}", encode(template, 1));
+        assertEquals(PREFIX + "Not found \\\"2\\\"\"}", encode(template, 2));
+    }
+
+    @Test
+    void reusesBodyOfStaticTemplate() throws NoSuchMethodException {
+        NotFoundMessageTemplate template = NotFoundMessageTemplate.compile("Not found", Object.class.getMethod("toString"));
+        GetOrThrowNotFoundException exception = new GetOrThrowNotFoundException(new NotFoundContext(template, null));
+
+        byte[] body = encoder.encode(exception);
+
+        assertEquals(PREFIX + "Not found\"}", new String(body, StandardCharsets.UTF_8));
+        assertSame(body, encoder.encode(exception));
+    }
+
+    @Test
+    void escapesMessageOfExceptionWithoutContext() {
+        GetOrThrowNotFoundException exception = new GetOrThrowNotFoundException("Not found \"\u043A\u043B\u044E\u0447\"\u0007");
+
+        assertEquals(PREFIX + "Not found \\\"\u043A\u043B\u044E\u0447\\\"\\u0007\"}", new String(encoder.encode(exception), StandardCharsets.UTF_8));
+    }
+
+    private String encode(NotFoundMessageTemplate template, Object... args) {
+        GetOrThrowNotFoundException exception = new GetOrThrowNotFoundException(new NotFoundContext(template, args));
+        return new String(encoder.encode(exception), StandardCharsets.UTF_8);
+    }
+}